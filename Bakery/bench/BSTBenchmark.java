@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the iterative BST operations with the recursive
+ * versions they replaced.
+ *
+ * RecursiveBST below is a trimmed copy of the old recursive insert, search,
+ * getSize, getHeight and in-order traversal. Both trees are timed on a random
+ * catalog-sized workload and on a degenerate (sorted) one, where the recursive
+ * version runs out of stack.
+ *
+ * Run from the Bakery directory:
+ *   javac -d out src/*.java bench/*.java
+ *   java -cp out BSTBenchmark
+ */
+public class BSTBenchmark {
+
+    private static final int RANDOM_SIZE = 200_000;
+    private static final int SORTED_SIZE = 30_000;
+    private static final int ROUNDS = 5;
+
+    // Sink that keeps the JIT from discarding results.
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        Integer[] random = new Integer[RANDOM_SIZE];
+        Random rng = new Random(42);
+        for (int i = 0; i < random.length; i++) {
+            random[i] = rng.nextInt();
+        }
+        Integer[] sorted = new Integer[SORTED_SIZE];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+
+        System.out.println("Random keys, n=" + RANDOM_SIZE + " (best of " + ROUNDS + ", ms)");
+        System.out.printf("%-12s %10s %10s%n", "operation", "recursive", "iterative");
+        report(random);
+
+        System.out.println();
+        System.out.println("Sorted keys, n=" + SORTED_SIZE + " (degenerate tree, ms)");
+        System.out.printf("%-12s %10s %10s%n", "operation", "recursive", "iterative");
+        report(sorted);
+        System.out.println("(blackhole " + blackhole + ")");
+    }
+
+    /**
+     * Times each operation on both implementations for the given keys.
+     */
+    private static void report(Integer[] keys) {
+        String[] ops = {"insert", "search", "getSize", "getHeight", "inOrder"};
+        double[][] times = new double[2][ops.length];
+        for (int impl = 0; impl < 2; impl++) {
+            try {
+                times[impl] = timeAll(impl == 0, keys);
+            } catch (StackOverflowError e) {
+                times[impl] = null;
+            }
+        }
+        for (int op = 0; op < ops.length; op++) {
+            System.out.printf("%-12s %10s %10s%n", ops[op],
+                    format(times[0], op), format(times[1], op));
+        }
+    }
+
+    private static String format(double[] times, int op) {
+        return (times == null) ? "overflow" : String.format("%.1f", times[op]);
+    }
+
+    /**
+     * Runs every operation for several rounds and keeps the best time of each.
+     */
+    private static double[] timeAll(boolean recursive, Integer[] keys) {
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                         Double.MAX_VALUE, Double.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            RecursiveBST<Integer> rec = new RecursiveBST<>();
+            BST<Integer> it = new BST<>();
+
+            long start = System.nanoTime();
+            for (Integer k : keys) {
+                if (recursive) rec.insert(k); else it.insert(k);
+            }
+            best[0] = Math.min(best[0], millis(start));
+
+            start = System.nanoTime();
+            for (Integer k : keys) {
+                blackhole += recursive ? rec.search(k) : it.search(k);
+            }
+            best[1] = Math.min(best[1], millis(start));
+
+            start = System.nanoTime();
+            blackhole += recursive ? rec.getSize() : it.getSize();
+            best[2] = Math.min(best[2], millis(start));
+
+            start = System.nanoTime();
+            blackhole += recursive ? rec.getHeight() : it.getHeight();
+            best[3] = Math.min(best[3], millis(start));
+
+            start = System.nanoTime();
+            blackhole += (recursive ? rec.inOrderTraversal() : it.inOrderTraversal()).size();
+            best[4] = Math.min(best[4], millis(start));
+        }
+        return best;
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    /**
+     * The recursive algorithms BST used before, kept here for comparison.
+     */
+    private static class RecursiveBST<T extends Comparable<T>> {
+        private class Node {
+            T data;
+            Node left;
+            Node right;
+
+            Node(T data) {
+                this.data = data;
+            }
+        }
+
+        private Node root;
+
+        void insert(T data) {
+            root = insert(data, root);
+        }
+
+        private Node insert(T data, Node node) {
+            if (node == null) {
+                return new Node(data);
+            }
+            if (data.compareTo(node.data) < 0) {
+                node.left = insert(data, node.left);
+            } else {
+                node.right = insert(data, node.right);
+            }
+            return node;
+        }
+
+        T search(T data) {
+            return search(data, root);
+        }
+
+        private T search(T data, Node node) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = data.compareTo(node.data);
+            if (cmp == 0) {
+                return node.data;
+            }
+            return (cmp < 0) ? search(data, node.left) : search(data, node.right);
+        }
+
+        int getSize() {
+            return getSize(root);
+        }
+
+        private int getSize(Node node) {
+            return (node == null) ? 0 : 1 + getSize(node.left) + getSize(node.right);
+        }
+
+        int getHeight() {
+            return getHeight(root);
+        }
+
+        private int getHeight(Node node) {
+            return (node == null) ? -1 : Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+        }
+
+        List<T> inOrderTraversal() {
+            List<T> list = new ArrayList<>();
+            inOrderHelper(root, list);
+            return list;
+        }
+
+        private void inOrderHelper(Node node, List<T> list) {
+            if (node == null) return;
+            inOrderHelper(node.left, list);
+            list.add(node.data);
+            inOrderHelper(node.right, list);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.function.Function;
+
+/**
+ * Microbenchmark for bucket lookups in HashTable.
+ *
+ * Compares the old two-pass lookup (LinkedList.findIndex followed by an
+ * iterator rescan of the same bucket) with the single-pass
+ * LinkedList.findByKey that HashTable.get now uses, on chains of 1, 10, 100
+ * and 1000 entries. A one-bucket HashTable is also timed end to end.
+ *
+ * Run from the Bakery directory:
+ *   javac -d out src/*.java bench/*.java
+ *   java -cp out HashTableBenchmark
+ */
+public class HashTableBenchmark {
+
+    private static final int[] CHAIN_LENGTHS = {1, 10, 100, 1000};
+    // Approximate number of element comparisons per timed run.
+    private static final long WORK_PER_RUN = 50_000_000L;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 5;
+
+    // Sink that keeps the JIT from discarding lookups.
+    private static int blackhole;
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %16s %16s %16s%n",
+                "chain", "two-pass ns/op", "one-pass ns/op", "HashTable ns/op");
+        for (int n : CHAIN_LENGTHS) {
+            String[] keys = new String[n];
+            LinkedList<String> chain = new LinkedList<>();
+            // A single bucket that never grows, so every key lands in one chain.
+            HashTable<String> table = new HashTable<>(1, Double.MAX_VALUE);
+            for (int i = 0; i < n; i++) {
+                keys[i] = "customer" + i + "@example.com";
+                chain.addLast(keys[i]);
+                table.add(keys[i]);
+            }
+            int ops = (int) Math.max(1, WORK_PER_RUN / n);
+
+            double twoPass = measure(() -> {
+                for (int i = 0; i < ops; i++) {
+                    blackhole += legacyGet(chain, keys[i % n]).length();
+                }
+            }, ops);
+            double onePass = measure(() -> {
+                for (int i = 0; i < ops; i++) {
+                    blackhole += chain.findByKey(keys[i % n], Function.identity()).length();
+                }
+            }, ops);
+            double hashTable = measure(() -> {
+                for (int i = 0; i < ops; i++) {
+                    blackhole += table.get(keys[i % n]).length();
+                }
+            }, ops);
+            System.out.printf("%8d %16.1f %16.1f %16.1f%n", n, twoPass, onePass, hashTable);
+        }
+        System.out.println("(blackhole " + blackhole + ")");
+    }
+
+    /**
+     * The lookup HashTable.get used before: find the index, then rescan the
+     * bucket with the list's iterator to return the element.
+     */
+    private static <T> T legacyGet(LinkedList<T> list, T elmt) {
+        int indexInList = list.findIndex(elmt);
+        if (indexInList != -1) {
+            list.positionIterator();
+            while (!list.offEnd()) {
+                T current = list.getIterator();
+                if (current.equals(elmt)) {
+                    return current;
+                }
+                list.advanceIterator();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs a task for several warmup and measured rounds.
+     *
+     * @return the best measured time per operation in nanoseconds
+     */
+    private static double measure(Runnable task, int ops) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / ops;
+    }
+}
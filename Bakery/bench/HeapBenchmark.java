@@ -0,0 +1,194 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the d-ary PriorityQueue with the binary heap it replaced.
+ *
+ * ObjectBinaryHeap below is a trimmed copy of the old heap: Order references in
+ * an ArrayList with a dummy slot, Order.compareTo on every step and a recursive
+ * heapify (with the comparison direction fixed, and without the order-id index,
+ * which only makes it cheaper). PriorityQueue is timed with 2, 4 and 8 children
+ * per node. Each run inserts n pending orders, then removes them all, then
+ * builds a queue of the same orders in one insertAll (Floyd's heapify); orders
+ * are spread over three years of dates and all three shipping speeds, so there
+ * are a few thousand distinct priorities.
+ *
+ * Run from the Bakery directory (sizes are optional; 10M orders needs a large heap):
+ *   javac -d out src/*.java bench/*.java
+ *   java -Xmx8g -cp out HeapBenchmark 10000 1000000 10000000
+ */
+public class HeapBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {10_000, 1_000_000};
+    private static final int[] ARITIES = {2, 4, 8};
+    private static final int ROUNDS = 5;
+    private static final int DAYS = 3 * 365;
+
+    // Sink that keeps the JIT from discarding results.
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+            }
+        }
+        System.out.printf("%-10s %-14s %12s %12s %12s%n",
+                          "n", "heap", "insert ns/op", "remove ns/op", "bulk ns/op");
+        for (int n : sizes) {
+            Order[] orders = makeOrders(n);
+            // Fewer rounds for the largest sizes, which take seconds each.
+            int rounds = (n >= 5_000_000) ? 2 : ROUNDS;
+            report(n, "binary (old)", timeOld(orders, rounds));
+            for (int d : ARITIES) {
+                report(n, d + "-ary", timeQueue(orders, d, rounds));
+            }
+        }
+        System.out.println("(blackhole " + blackhole + ")");
+    }
+
+    private static void report(int n, String heap, double[] nanos) {
+        String bulk = (nanos.length > 2) ? String.format("%.1f", nanos[2] / n) : "-";
+        System.out.printf("%-10d %-14s %12.1f %12.1f %12s%n", n, heap, nanos[0] / n, nanos[1] / n, bulk);
+    }
+
+    /**
+     * Builds n orders in random priority order. Dates and customer ids are
+     * shared between orders to keep the memory per order small.
+     */
+    private static Order[] makeOrders(int n) {
+        Random rng = new Random(42);
+        LocalDateTime today = LocalDateTime.now();
+        LocalDateTime[] dates = new LocalDateTime[DAYS];
+        for (int d = 0; d < DAYS; d++) {
+            dates[d] = today.minusDays(d);
+        }
+        String[] customers = new String[1000];
+        for (int c = 0; c < customers.length; c++) {
+            customers[c] = "customer" + c + "@example.com";
+        }
+        Order.ShippingSpeed[] speeds = Order.ShippingSpeed.values();
+        Order[] orders = new Order[n];
+        for (int i = 0; i < n; i++) {
+            orders[i] = new Order("B" + i, customers[rng.nextInt(customers.length)],
+                                  speeds[rng.nextInt(speeds.length)], dates[rng.nextInt(DAYS)]);
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the best insert-all, remove-all and bulk-build times (ns) of the d-ary queue.
+     */
+    private static double[] timeQueue(Order[] orders, int arity, int rounds) {
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        List<Order> batch = Arrays.asList(orders);
+        for (int round = 0; round < rounds; round++) {
+            PriorityQueue q = new PriorityQueue(arity);
+            long start = System.nanoTime();
+            for (Order o : orders) {
+                q.insert(o);
+            }
+            best[0] = Math.min(best[0], System.nanoTime() - start);
+            start = System.nanoTime();
+            while (!q.isEmpty()) {
+                blackhole += q.remove().getPriority();
+            }
+            best[1] = Math.min(best[1], System.nanoTime() - start);
+            start = System.nanoTime();
+            PriorityQueue built = new PriorityQueue(arity);
+            built.insertAll(batch);
+            best[2] = Math.min(best[2], System.nanoTime() - start);
+            blackhole += built.peek().getPriority();
+            // Drain it so the orders can be queued again next round.
+            while (!built.isEmpty()) {
+                built.remove();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the best insert-all and remove-all times (ns) of the old binary heap.
+     */
+    private static double[] timeOld(Order[] orders, int rounds) {
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE};
+        for (int round = 0; round < rounds; round++) {
+            ObjectBinaryHeap q = new ObjectBinaryHeap();
+            long start = System.nanoTime();
+            for (Order o : orders) {
+                q.insert(o);
+            }
+            best[0] = Math.min(best[0], System.nanoTime() - start);
+            start = System.nanoTime();
+            while (!q.isEmpty()) {
+                blackhole += q.remove().getPriority();
+            }
+            best[1] = Math.min(best[1], System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * The binary heap PriorityQueue used before, kept here for comparison.
+     */
+    private static class ObjectBinaryHeap {
+        private final ArrayList<Order> heap = new ArrayList<>();
+        private int size;
+
+        ObjectBinaryHeap() {
+            heap.add(null);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void insert(Order order) {
+            size++;
+            heap.add(order);
+            int idx = size;
+            while (idx > 1 && heap.get(idx).compareTo(heap.get(idx / 2)) < 0) {
+                swap(idx, idx / 2);
+                idx /= 2;
+            }
+        }
+
+        Order remove() {
+            Order top = heap.get(1);
+            heap.set(1, heap.get(size));
+            heap.remove(size);
+            size--;
+            if (size > 0) {
+                heapify(1);
+            }
+            return top;
+        }
+
+        private void heapify(int idx) {
+            int left = 2 * idx;
+            int right = 2 * idx + 1;
+            int largest = idx;
+            if (left <= size && heap.get(left).compareTo(heap.get(largest)) < 0) {
+                largest = left;
+            }
+            if (right <= size && heap.get(right).compareTo(heap.get(largest)) < 0) {
+                largest = right;
+            }
+            if (largest != idx) {
+                swap(idx, largest);
+                heapify(largest);
+            }
+        }
+
+        private void swap(int i, int j) {
+            Order temp = heap.get(i);
+            heap.set(i, heap.get(j));
+            heap.set(j, temp);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark comparing partial-text product search through ProductCatalog.search
+ * (backed by SearchIndex) with the linear scan CustomerMenu.searchProduct used
+ * before: walk the name tree, lowercase every name, category and description
+ * and call contains() on each. Both return their matches sorted by name.
+ *
+ * A synthetic catalog of 100k products is built from bakery words, then a mix
+ * of rare, common and short queries is timed with both approaches. The two
+ * result lists are compared first, and the benchmark fails if they differ.
+ *
+ * Run from the Bakery directory:
+ *   javac -d out src/*.java bench/*.java
+ *   java -cp out SearchBenchmark
+ */
+public class SearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    private static final String[] FLAVORS = {
+        "Chocolate", "Vanilla", "Almond", "Lemon", "Raspberry", "Cinnamon",
+        "Pistachio", "Hazelnut", "Maple", "Walnut", "Blueberry", "Caramel"
+    };
+    private static final String[] ITEMS = {
+        "Croissant", "Baguette", "Muffin", "Scone", "Eclair", "Tart",
+        "Brioche", "Sourdough", "Cupcake", "Danish", "Cheesecake", "Bagel"
+    };
+    private static final String[] CATEGORIES = {"Pastry", "Bread", "Cake", "Cookie", "Pie"};
+    private static final String[] ADJECTIVES = {
+        "flaky", "buttery", "crusty", "moist", "rich", "light", "glazed", "toasted"
+    };
+    private static final String[] QUERIES = {
+        "pistachio eclair 4", "sourdough", "glazed", "cake", "ma", "e", "zzz"
+    };
+
+    // Sink that keeps the JIT from discarding results.
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        Random rng = new Random(42);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String item = ITEMS[rng.nextInt(ITEMS.length)];
+            String name = FLAVORS[rng.nextInt(FLAVORS.length)] + " " + item + " " + i;
+            String desc = ADJECTIVES[rng.nextInt(ADJECTIVES.length)] + " "
+                        + ADJECTIVES[rng.nextInt(ADJECTIVES.length)] + " " + item.toLowerCase();
+            products.add(new Product(name, CATEGORIES[rng.nextInt(CATEGORIES.length)],
+                                     1 + rng.nextInt(2000) / 100.0, rng.nextInt(50),
+                                     desc, null, 100 + rng.nextInt(500)));
+        }
+
+        long start = System.nanoTime();
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.addAll(products);
+        System.out.printf("Loaded %d products in %.1f ms%n", PRODUCTS,
+                (System.nanoTime() - start) / 1_000_000.0);
+
+        System.out.printf("%-20s %8s %12s %12s%n", "query", "matches", "scan ms", "index ms");
+        for (String q : QUERIES) {
+            List<Product> scanned = linearScan(catalog, q);
+            List<Product> indexed = catalog.search(q);
+            if (!scanned.equals(indexed)) {
+                throw new IllegalStateException("Result mismatch for \"" + q + "\": "
+                        + scanned.size() + " vs " + indexed.size());
+            }
+            double scanMs = measure(() -> blackhole += linearScan(catalog, q).size());
+            double indexMs = measure(() -> blackhole += catalog.search(q).size());
+            System.out.printf("%-20s %8d %12.3f %12.3f%n", "\"" + q + "\"", indexed.size(), scanMs, indexMs);
+        }
+        System.out.println("(blackhole " + blackhole + ")");
+    }
+
+    /**
+     * The search CustomerMenu used before, extended to descriptions.
+     */
+    private static List<Product> linearScan(ProductCatalog catalog, String query) {
+        String kw = query.toLowerCase();
+        List<Product> result = new ArrayList<>();
+        for (Product p : catalog.productsByName()) {
+            if (p.getName().toLowerCase().contains(kw)
+                || p.getCategory().toLowerCase().contains(kw)
+                || p.getDescription().toLowerCase().contains(kw))
+            {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a task for several warmup and measured rounds.
+     *
+     * @return the best measured time in milliseconds
+     */
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+}
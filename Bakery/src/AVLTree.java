@@ -0,0 +1,115 @@
+import java.util.Comparator;
+
+/**
+ * A self-balancing Binary Search Tree (AVL tree).
+ *
+ * AVLTree has exactly the same API as BST: it only overrides the rebalance
+ * hook that BST calls on every node along an insert or remove path. Whenever
+ * a node's subtrees differ in height by more than one, it is fixed with a
+ * single or double rotation, so the height stays O(log n) even when elements
+ * arrive in sorted order.
+ *
+ * @param <T> The type of data stored in the tree.
+ */
+public class AVLTree<T> extends BST<T> {
+
+    /**
+     * Constructs an empty AVL tree ordered by the elements' compareTo.
+     */
+    public AVLTree() {
+        super();
+    }
+
+    /**
+     * Constructs an empty AVL tree ordered by a Comparator.
+     *
+     * @param comparator the ordering of the elements
+     */
+    public AVLTree(Comparator<? super T> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Copy constructor: builds a balanced copy of another tree.
+     * Another AVLTree is cloned node for node; any other BST is re-inserted
+     * in order so the copy is balanced even if the original was not.
+     *
+     * @param other the tree to copy
+     */
+    public AVLTree(BST<T> other) {
+        // Start from an empty tree with the same ordering unless other can be cloned.
+        super((other == null || other instanceof AVLTree) ? other : new BST<T>(other.comparator()));
+        if (other != null && !(other instanceof AVLTree)) {
+            for (T data : other) {
+                insert(data);
+            }
+        }
+    }
+
+    /**
+     * Returns the balance factor of a node (left height minus right height).
+     *
+     * @param node the node to inspect
+     * @return the balance factor
+     */
+    private int balance(Node node) {
+        return height(node.left) - height(node.right);
+    }
+
+    /**
+     * Restores the AVL property at a node after one of its subtrees changed.
+     *
+     * @param node the node whose children may have changed
+     * @return the node that now roots this subtree
+     */
+    @Override
+    protected Node rebalance(Node node) {
+        update(node);
+        int bf = balance(node);
+        if (bf > 1) {
+            // Left-heavy: a left-right case needs the left child rotated first.
+            if (balance(node.left) < 0) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (bf < -1) {
+            // Right-heavy: a right-left case needs the right child rotated first.
+            if (balance(node.right) > 0) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rotates a subtree to the right, lifting its left child.
+     *
+     * @param node the subtree root
+     * @return the new subtree root
+     */
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates a subtree to the left, lifting its right child.
+     *
+     * @param node the subtree root
+     * @return the new subtree root
+     */
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,221 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bitmap index of products by allergen.
+ *
+ * Every indexed product occupies a slot (a small integer, reused after the
+ * product is removed). There is one bitmap of live slots, plus one bitmap per
+ * allergen bit (see Allergens) marking the slots whose product contains it.
+ * "Exclude allergens X and Y" is then live AND NOT (X OR Y), computed 64
+ * products at a time, and only the slots left set are turned back into products.
+ */
+public class AllergenIndex {
+
+    // Number of slots per bitmap word.
+    private static final int WORD = Long.SIZE;
+
+    // Product in each slot; null for a free slot.
+    private Product[] slots;
+    // Slot of each indexed product.
+    private final Map<Product, Integer> slotOf;
+    // Slots freed by removals, reused before new ones.
+    private final Deque<Integer> freeSlots;
+    // Number of slots ever handed out (the high-water mark).
+    private int used;
+    // Bitmap of occupied slots.
+    private long[] live;
+    // Bitmap per allergen bit; null until some product has that allergen.
+    private final long[][] byAllergen;
+
+    /**
+     * Constructs an empty AllergenIndex.
+     */
+    public AllergenIndex() {
+        slots = new Product[WORD];
+        slotOf = new HashMap<>();
+        freeSlots = new ArrayDeque<>();
+        used = 0;
+        live = new long[1];
+        byAllergen = new long[Allergens.MAX_ALLERGENS][];
+    }
+
+    /**
+     * Returns the number of products in the index.
+     *
+     * @return the product count
+     */
+    public int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Checks whether a product is indexed.
+     *
+     * @param p the product to look for
+     * @return true if the product (or a copy with its id) is in the index
+     */
+    public boolean contains(Product p) {
+        return slotOf.containsKey(p);
+    }
+
+    /**
+     * Adds a product. Its allergens must not change while it is indexed.
+     *
+     * @param p the product to add
+     */
+    public void add(Product p) {
+        if (slotOf.containsKey(p)) {
+            return;
+        }
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = used++;
+            ensureCapacity(used);
+        } else {
+            slot = freeSlots.pop();
+        }
+        slots[slot] = p;
+        slotOf.put(p, slot);
+        int word = slot / WORD;
+        long bit = 1L << (slot % WORD);
+        live[word] |= bit;
+        long mask = p.getAllergenMask();
+        while (mask != 0) {
+            int a = Long.numberOfTrailingZeros(mask);
+            if (byAllergen[a] == null) {
+                byAllergen[a] = new long[live.length];
+            }
+            byAllergen[a][word] |= bit;
+            mask &= mask - 1;
+        }
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param p the product to remove
+     * @return true if the product was indexed
+     */
+    public boolean remove(Product p) {
+        Integer slot = slotOf.remove(p);
+        if (slot == null) {
+            return false;
+        }
+        int word = slot / WORD;
+        long clear = ~(1L << (slot % WORD));
+        live[word] &= clear;
+        long mask = p.getAllergenMask();
+        while (mask != 0) {
+            byAllergen[Long.numberOfTrailingZeros(mask)][word] &= clear;
+            mask &= mask - 1;
+        }
+        slots[slot] = null;
+        freeSlots.push(slot);
+        return true;
+    }
+
+    /**
+     * Returns every product that contains none of the given allergens, in
+     * slot order: the order they were added, as long as no slot has been reused.
+     *
+     * @param excluded the mask of allergens to exclude (see Allergens)
+     * @return the products free of all of them
+     */
+    public List<Product> without(long excluded) {
+        List<long[]> maps = bitmapsOf(excluded);
+        List<Product> result = new ArrayList<>();
+        int words = (used + WORD - 1) / WORD;
+        for (int w = 0; w < words; w++) {
+            long bits = live[w];
+            for (long[] map : maps) {
+                bits &= ~map[w];
+            }
+            while (bits != 0) {
+                result.add(slots[w * WORD + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of products that contain none of the given allergens,
+     * without building the list.
+     *
+     * @param excluded the mask of allergens to exclude (see Allergens)
+     * @return the count of products free of all of them
+     */
+    public int countWithout(long excluded) {
+        List<long[]> maps = bitmapsOf(excluded);
+        int count = 0;
+        int words = (used + WORD - 1) / WORD;
+        for (int w = 0; w < words; w++) {
+            long bits = live[w];
+            for (long[] map : maps) {
+                bits &= ~map[w];
+            }
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Gathers the bitmaps of the allergens in a mask once, so word loops do no lookups.
+     *
+     * @param mask the allergen mask
+     * @return the bitmaps of the allergens some product has
+     */
+    private List<long[]> bitmapsOf(long mask) {
+        List<long[]> maps = new ArrayList<>();
+        while (mask != 0) {
+            long[] map = byAllergen[Long.numberOfTrailingZeros(mask)];
+            if (map != null) {
+                maps.add(map);
+            }
+            mask &= mask - 1;
+        }
+        return maps;
+    }
+
+    /**
+     * Returns the number of indexed products that contain an allergen.
+     *
+     * @param bit the allergen's bit position (see Allergens)
+     * @return the product count
+     */
+    public int countWith(int bit) {
+        long[] map = (bit < 0) ? null : byAllergen[bit];
+        if (map == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long word : map) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Grows the slot array and every bitmap to hold at least n slots.
+     */
+    private void ensureCapacity(int n) {
+        if (n <= slots.length) {
+            return;
+        }
+        int capacity = Math.max(n, slots.length * 2);
+        slots = Arrays.copyOf(slots, capacity);
+        int words = (capacity + WORD - 1) / WORD;
+        live = Arrays.copyOf(live, words);
+        for (int a = 0; a < byAllergen.length; a++) {
+            if (byAllergen[a] != null) {
+                byAllergen[a] = Arrays.copyOf(byAllergen[a], words);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A shared dictionary that interns allergen names into bit positions.
+ *
+ * Each distinct allergen (lowercase, trimmed) is given the next free bit the
+ * first time it is seen, so a product's allergens fit in a single long and
+ * "contains any of" checks are one AND. The dictionary holds at most
+ * MAX_ALLERGENS names, far more than the regulated allergen lists a bakery
+ * labels for. Methods are synchronized, as Product creation may happen on
+ * several threads.
+ */
+public final class Allergens {
+
+    // Number of bits in a mask, and so the most allergens that can be interned.
+    public static final int MAX_ALLERGENS = Long.SIZE;
+
+    // Bit position of each interned allergen.
+    private static final Map<String, Integer> bits = new HashMap<>();
+    // Allergen name of each bit position, in the order they were interned.
+    private static final List<String> names = new ArrayList<>();
+
+    private Allergens() {
+    }
+
+    /**
+     * Returns the normalized form an allergen is stored under.
+     *
+     * @param allergen the allergen name
+     * @return the lowercase, trimmed name
+     */
+    public static String normalize(String allergen) {
+        return allergen.toLowerCase().trim();
+    }
+
+    /**
+     * Returns the bit position of an allergen, interning it if it is new.
+     *
+     * @param allergen the allergen name
+     * @return its bit position (0 to MAX_ALLERGENS - 1)
+     * @throws IllegalStateException if the dictionary is full
+     */
+    public static synchronized int intern(String allergen) {
+        String key = normalize(allergen);
+        Integer bit = bits.get(key);
+        if (bit == null) {
+            if (names.size() == MAX_ALLERGENS) {
+                throw new IllegalStateException("Too many distinct allergens (max "
+                        + MAX_ALLERGENS + "): " + key);
+            }
+            bit = names.size();
+            bits.put(key, bit);
+            names.add(key);
+        }
+        return bit;
+    }
+
+    /**
+     * Returns the bit position of an allergen without interning it.
+     *
+     * @param allergen the allergen name
+     * @return its bit position, or -1 if no product has ever used it
+     */
+    public static synchronized int bitOf(String allergen) {
+        Integer bit = bits.get(normalize(allergen));
+        return (bit == null) ? -1 : bit;
+    }
+
+    /**
+     * Builds the mask of a set of allergens, interning any new ones.
+     * Blank names are ignored.
+     *
+     * @param allergens the allergen names (can be null)
+     * @return the mask with one bit set per allergen
+     */
+    public static long maskOf(Collection<String> allergens) {
+        long mask = 0;
+        if (allergens != null) {
+            for (String a : allergens) {
+                if (!normalize(a).isEmpty()) {
+                    mask |= 1L << intern(a);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Builds the mask of a set of allergens without interning them. Names no
+     * product has used are skipped, since no product can match them.
+     *
+     * @param allergens the allergen names
+     * @return the mask of the known allergens
+     */
+    public static long lookupMask(Collection<String> allergens) {
+        long mask = 0;
+        for (String a : allergens) {
+            int bit = bitOf(a);
+            if (bit >= 0) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the allergen names of a mask.
+     *
+     * @param mask the allergen mask
+     * @return a new set holding the name of every set bit
+     */
+    public static synchronized Set<String> namesOf(long mask) {
+        Set<String> result = new HashSet<>();
+        while (mask != 0) {
+            int bit = Long.numberOfTrailingZeros(mask);
+            result.add(names.get(bit));
+            mask &= mask - 1;
+        }
+        return result;
+    }
+}
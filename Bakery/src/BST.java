@@ -1,70 +1,185 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToDoubleFunction;
 
 /**
- * A fully featured generic Binary Search Tree for elements
- * that implement Comparable<T>.
+ * A fully featured generic Binary Search Tree.
  *
- * @param <T> The type of data stored in the tree. Must be Comparable<T>.
+ * By default elements are ordered by their compareTo (and must implement
+ * Comparable), but a tree can also be built with a Comparator, so several
+ * trees can index the same objects by different fields without wrapping or
+ * copying them. The comparator should be a total order over distinct elements
+ * (break ties on a unique field such as an id): elements that compare equal
+ * are kept in insertion order, but remove() and search() cannot tell them apart.
+ *
+ * Every node records the height and size of its subtree. Insert and remove pass
+ * each node on the way back up through rebalance(), which only refreshes those
+ * fields here; subclasses such as AVLTree override it to keep the tree balanced.
+ * The stored sizes make getSize() O(1) and let rank() and select() answer
+ * order-statistic queries in time proportional to the height. Range scans and
+ * pages start from the first node in the window and stop at its end, so they
+ * only visit the nodes they return plus one root-to-leaf path.
+ *
+ * The *Keys variants take a "probe" instead of an element: a Comparable that
+ * compares itself against stored elements, with the same sign as
+ * probe.compareTo(element). This lets callers search on one field
+ * (e.g. p -> Double.compare(price, p.getPrice())) without building an element.
+ * The *Within variants go one step further for numeric keys: they take the
+ * signed offset of an element's key from a target (e.g. p -> p.getPrice() - price)
+ * and treat elements within a tolerance of the target as equal to it.
+ *
+ * The tree is Iterable: iterator() walks it in order on demand, and there are
+ * lazy pre-, post- and level-order iterators too, so a caller that stops early
+ * never copies the rest of the tree. Iterators are fail-fast and throw
+ * ConcurrentModificationException if the tree is modified during iteration.
+ *
+ * All operations are iterative: descents are simple loops, and traversals
+ * and the insert/remove paths use explicit stacks on the heap, so the depth
+ * of the tree is never limited by the thread's call stack. The insert/remove
+ * stack is one array kept by the tree and reused, so updates do not allocate it.
+ *
+ * @param <T> The type of data stored in the tree.
  */
-public class BST<T extends Comparable<T>> {
+public class BST<T> implements Iterable<T> {
     /**
-     * A single tree node storing data, plus left/right child references.
+     * A single tree node storing data, plus left/right child references
+     * and the height and size of the subtree rooted here.
      */
-    private class Node {
-        private T data;
-        private Node left;
-        private Node right;
+    protected class Node {
+        T data;
+        Node left;
+        Node right;
+        int height;
+        int size;
 
-        // Constructor for creating a node with the given data.
+        // Constructor for creating a leaf node with the given data.
         public Node(T data) {
             this.data = data;
             this.left = null;
             this.right = null;
+            this.height = 0;
+            this.size = 1;
         }
     }
 
     // The root node of this BST.
     private Node root;
+    // The ordering of the elements.
+    private final Comparator<? super T> comparator;
+    // Number of structural modifications, checked by iterators.
+    private int modCount;
+    // Scratch stack for the insert/remove path (see pathBuffer).
+    private Node[] path;
 
     /**
-     * Constructs an empty BST.
+     * Constructs an empty BST ordered by the elements' compareTo.
+     * Inserting an element that is not Comparable throws ClassCastException.
      */
     public BST() {
+        this(naturalOrder());
+    }
+
+    /**
+     * Constructs an empty BST ordered by a Comparator.
+     *
+     * @param comparator the ordering of the elements
+     * @throws NullPointerException if comparator is null
+     */
+    public BST(Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException("Comparator cannot be null");
+        }
+        this.comparator = comparator;
         root = null;
     }
 
     /**
      * Copy constructor: performs a deep copy of another BST.
+     * The copy has the same shape and ordering as the original.
      *
      * @param other the BST to copy
      */
     public BST(BST<T> other) {
+        comparator = (other != null) ? other.comparator : naturalOrder();
         root = null;
         // Only copy if the other tree is not null and not empty.
         if (other != null && !other.isEmpty()) {
-            copyHelper(other.root);
+            root = copyHelper(other.root);
         }
     }
 
     /**
-     * Recursive helper for the copy constructor.
-     * Inserts each node’s data from the other tree into this tree.
+     * Helper for the copy constructor.
+     * Clones each node of the other tree, including its stored height and size,
+     * without comparing or re-inserting any data.
      *
-     * @param node the current node from the other tree
+     * @param node the root of the other tree
+     * @return the root of the copy
      */
-    private void copyHelper(Node node) {
-        if (node == null) {
-            return;
+    private Node copyHelper(Node node) {
+        Node copyRoot = cloneNode(node);
+        // Pairs of (original, copy) whose children still need to be cloned.
+        Deque<Node> originals = new ArrayDeque<>();
+        Deque<Node> copies = new ArrayDeque<>();
+        originals.push(node);
+        copies.push(copyRoot);
+        while (!originals.isEmpty()) {
+            Node original = originals.pop();
+            Node copy = copies.pop();
+            if (original.left != null) {
+                copy.left = cloneNode(original.left);
+                originals.push(original.left);
+                copies.push(copy.left);
+            }
+            if (original.right != null) {
+                copy.right = cloneNode(original.right);
+                originals.push(original.right);
+                copies.push(copy.right);
+            }
         }
-        // Insert the current node's data into this tree.
-        insert(node.data);
-        // Recursively copy the left and right subtrees.
-        copyHelper(node.left);
-        copyHelper(node.right);
+        return copyRoot;
+    }
+
+    /**
+     * Copies a single node's data, height and size (but not its children).
+     *
+     * @param node the node to copy
+     * @return the new node
+     */
+    private Node cloneNode(Node node) {
+        Node copy = new Node(node.data);
+        copy.height = node.height;
+        copy.size = node.size;
+        return copy;
+    }
+
+    /**
+     * Returns a comparator that orders elements by their compareTo.
+     *
+     * @return the natural-order comparator
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> naturalOrder() {
+        return (Comparator<T>) (Comparator) Comparator.naturalOrder();
+    }
+
+    /**
+     * Returns the ordering of this tree's elements.
+     *
+     * @return the comparator the tree was built with (natural order by default)
+     */
+    public Comparator<? super T> comparator() {
+        return comparator;
     }
 
     /**
@@ -78,48 +193,23 @@ public class BST<T extends Comparable<T>> {
 
     /**
      * Returns the number of nodes in this BST.
+     * Subtree sizes are kept up to date on every insert and remove, so this is O(1).
      *
      * @return the size of the tree
      */
     public int getSize() {
-        return getSize(root);
-    }
-
-    /**
-     * Private recursive helper for getSize.
-     *
-     * @param node the current node
-     * @return the total number of nodes in the subtree rooted at node
-     */
-    private int getSize(Node node) {
-        if (node == null) return 0;
-        return 1 + getSize(node.left) + getSize(node.right);
+        return size(root);
     }
 
     /**
      * Returns the height of the BST in terms of edges, or -1 if the tree is empty.
      * Height of a single-node tree is 0 (no edges).
+     * Heights are kept up to date on every insert and remove, so this is O(1).
      *
      * @return the height of the tree
      */
     public int getHeight() {
-        return getHeight(root);
-    }
-
-    /**
-     * Private recursive helper for getHeight.
-     *
-     * @param node the current node
-     * @return the height of the subtree rooted at node
-     */
-    private int getHeight(Node node) {
-        if (node == null) {
-            return -1; // An empty tree has height -1.
-        }
-        int leftH = getHeight(node.left);
-        int rightH = getHeight(node.right);
-        // Height is max of left/right subtree heights plus one for the current edge.
-        return Math.max(leftH, rightH) + 1;
+        return height(root);
     }
 
     /**
@@ -139,14 +229,14 @@ public class BST<T extends Comparable<T>> {
     /**
      * Private helper that returns the node with the minimum data, not just the value.
      *
-     * @param node the current node
+     * @param node the root of a non-empty subtree
      * @return the node containing the smallest value
      */
     private Node findMin(Node node) {
-        if (node.left == null) {
-            return node;
+        while (node.left != null) {
+            node = node.left;
         }
-        return findMin(node.left);
+        return node;
     }
 
     /**
@@ -166,14 +256,14 @@ public class BST<T extends Comparable<T>> {
     /**
      * Private helper that returns the node with the maximum data.
      *
-     * @param node the current node
+     * @param node the root of a non-empty subtree
      * @return the node containing the largest value
      */
     private Node findMax(Node node) {
-        if (node.right == null) {
-            return node;
+        while (node.right != null) {
+            node = node.right;
         }
-        return findMax(node.right);
+        return node;
     }
 
     /**
@@ -183,107 +273,543 @@ public class BST<T extends Comparable<T>> {
      * @return the matching value if found, or null if not found
      */
     public T search(T data) {
-        return search(data, root);
+        Node node = root;
+        while (node != null) {
+            int cmp = comparator.compare(data, node.data);
+            if (cmp == 0) {
+                return node.data; // Found the value.
+            }
+            // Continue in the left or right subtree.
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        return null;
     }
 
     /**
-     * Private recursive helper for search.
+     * Inserts a new value into the BST.
+     * Duplicates go to the right subtree by convention.
      *
-     * @param data the value to locate
-     * @param node the current node in the search
-     * @return the matching value if found, or null otherwise
+     * @param data the value to insert
+     */
+    public void insert(T data) {
+        modCount++;
+        Node leaf = new Node(data);
+        if (root == null) {
+            root = leaf;
+            return;
+        }
+        // Record the path from the root down to the new node's parent.
+        Node[] path = pathBuffer(height(root) + 1);
+        int depth = 0;
+        Node node = root;
+        while (true) {
+            path[depth++] = node;
+            // Insert duplicates or larger values into the right subtree.
+            if (comparator.compare(data, node.data) < 0) {
+                if (node.left == null) {
+                    node.left = leaf;
+                    break;
+                }
+                node = node.left;
+            } else {
+                if (node.right == null) {
+                    node.right = leaf;
+                    break;
+                }
+                node = node.right;
+            }
+        }
+        rebalancePath(path, depth);
+    }
+
+    /**
+     * Removes a value from the BST, if present.
+     * Otherwise, does nothing.
+     *
+     * @param data the value to remove
      */
-    private T search(T data, Node node) {
+    public void remove(T data) {
+        // Record the path from the root down to the node to remove.
+        Node[] path = pathBuffer(height(root) + 1);
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = comparator.compare(data, node.data);
+            if (cmp == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = (cmp < 0) ? node.left : node.right;
+        }
         if (node == null) {
-            return null;
+            // Value not found, do nothing.
+            clearPath(path, depth);
+            return;
+        }
+        modCount++;
+        if (node.left != null && node.right != null) {
+            // Node has two children: replace its data with the minimum of the right
+            // subtree, then unlink that minimum node instead. The node itself is
+            // unlinked, so an equal key elsewhere in the tree is untouched.
+            path[depth++] = node;
+            Node min = node.right;
+            while (min.left != null) {
+                path[depth++] = min;
+                min = min.left;
+            }
+            node.data = min.data;
+            node = min;
         }
-        int cmp = data.compareTo(node.data);
-        if (cmp == 0) {
-            return node.data; // Found the value.
-        } else if (cmp < 0) {
-            return search(data, node.left); // Search left subtree.
+        // Node now has at most one child, which takes its place.
+        Node child = (node.left != null) ? node.left : node.right;
+        if (depth == 0) {
+            root = child;
+            return;
+        }
+        Node parent = path[depth - 1];
+        if (parent.left == node) {
+            parent.left = child;
         } else {
-            return search(data, node.right); // Search right subtree.
+            parent.right = child;
         }
+        rebalancePath(path, depth);
     }
 
     /**
-     * Inserts a new value into the BST.
-     * Duplicates go to the right subtree by convention.
+     * Returns the scratch array that insert() and remove() record their path in,
+     * growing it if it holds fewer than n nodes. The array is reused from call to
+     * call, so an update allocates nothing beyond the new node.
      *
-     * @param data the value to insert
+     * @param n the number of nodes the path may hold
+     * @return the scratch array
      */
-    public void insert(T data) {
-        root = insert(data, root);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node[] pathBuffer(int n) {
+        if (path == null || path.length < n) {
+            path = (Node[]) new BST.Node[Math.max(n, (path == null) ? 16 : 2 * path.length)];
+        }
+        return path;
     }
 
     /**
-     * Private recursive helper for insert.
+     * Clears the first n entries of the scratch path so it does not keep
+     * removed nodes reachable.
      *
-     * @param data the value to insert
-     * @param node the current node
-     * @return the modified node after insertion
+     * @param path  the scratch array
+     * @param depth the number of entries in use
      */
-    private Node insert(T data, Node node) {
-        if (node == null) {
-            // Create a new node if we've reached a null position.
-            return new Node(data);
+    private void clearPath(Node[] path, int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
         }
-        int cmp = data.compareTo(node.data);
-        if (cmp < 0) {
-            node.left = insert(data, node.left); // Insert into left subtree.
-        } else {
-            // Insert duplicates or larger values into the right subtree.
-            node.right = insert(data, node.right);
+    }
+
+    /**
+     * Passes the nodes of a root-to-node path through rebalance(), bottom up,
+     * and links each resulting subtree root back into its parent.
+     * Every node on the path has gained or lost a descendant, so all of them
+     * need their stored size refreshed. Each entry is cleared once it is used.
+     *
+     * @param path  the nodes from the root down to the deepest changed node
+     * @param depth the number of nodes on the path
+     */
+    private void rebalancePath(Node[] path, int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node before = path[i];
+            path[i] = null;
+            Node after = rebalance(before);
+            if (i == 0) {
+                root = after;
+            } else {
+                Node parent = path[i - 1];
+                if (parent.left == before) {
+                    parent.left = after;
+                } else {
+                    parent.right = after;
+                }
+            }
         }
-        return node;
     }
 
+    /* ======================================================
+       ORDER STATISTICS
+       ====================================================== */
+
     /**
-     * Removes a value from the BST, if present.
-     * Otherwise, does nothing.
+     * Returns the number of elements strictly less than the given value,
+     * i.e. the index the value has (or would have) in the in-order traversal.
      *
-     * @param data the value to remove
+     * @param data the value to rank
+     * @return the count of smaller elements
      */
-    public void remove(T data) {
-        root = remove(data, root);
+    public int rank(T data) {
+        return rankKeys(probe(data));
     }
 
     /**
-     * Private recursive helper for remove.
+     * Returns the number of elements strictly less than a probe key.
      *
-     * @param data the value to remove
-     * @param node the current node
-     * @return the modified node after removal
+     * @param key a probe comparing itself against stored elements
+     * @return the count of smaller elements
      */
-    private Node remove(T data, Node node) {
-        if (node == null) {
-            // Value not found, do nothing.
-            return null;
+    public int rankKeys(Comparable<? super T> key) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (key.compareTo(node.data) <= 0) {
+                node = node.left;
+            } else {
+                // Everything in the left subtree, plus this node, is smaller.
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
         }
-        int cmp = data.compareTo(node.data);
-        if (cmp < 0) {
-            node.left = remove(data, node.left);
-        } else if (cmp > 0) {
-            node.right = remove(data, node.right);
-        } else {
-            // Found the node to remove.
-            if (node.left == null && node.right == null) {
-                // Node has no children.
-                node = null;
-            } else if (node.left != null && node.right == null) {
-                // Node has only a left child.
+        return rank;
+    }
+
+    /**
+     * Returns the k-th smallest element (0-based), i.e. the element at index k
+     * of the in-order traversal.
+     *
+     * @param k the index to select
+     * @return the element at that position
+     * @throws IndexOutOfBoundsException if k is not in [0, getSize())
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size(root)) {
+            throw new IndexOutOfBoundsException("select(): Invalid index " + k);
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
                 node = node.left;
-            } else if (node.left == null && node.right != null) {
-                // Node has only a right child.
+            } else if (k == leftSize) {
+                return node.data;
+            } else {
+                k -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /* ======================================================
+       FLOOR, CEILING AND NEAREST
+       ====================================================== */
+
+    /**
+     * Returns the greatest element less than or equal to a value.
+     *
+     * @param data the value to look up
+     * @return the floor element, or null if every element is greater
+     */
+    public T floor(T data) {
+        return floorKey(probe(data));
+    }
+
+    /**
+     * Returns the smallest element greater than or equal to a value.
+     *
+     * @param data the value to look up
+     * @return the ceiling element, or null if every element is smaller
+     */
+    public T ceiling(T data) {
+        return ceilingKey(probe(data));
+    }
+
+    /**
+     * Returns the greatest element that is less than or equal to a probe key.
+     *
+     * @param key a probe comparing itself against stored elements
+     * @return the floor element, or null if there is none
+     */
+    public T floorKey(Comparable<? super T> key) {
+        T best = null;
+        Node node = root;
+        while (node != null) {
+            if (key.compareTo(node.data) >= 0) {
+                // node qualifies; a closer one can only be to its right.
+                best = node.data;
                 node = node.right;
             } else {
-                // Node has two children: replace with minimum in the right subtree.
-                Node minRight = findMin(node.right);
-                node.data = minRight.data;
-                node.right = remove(minRight.data, node.right);
+                node = node.left;
             }
         }
+        return best;
+    }
+
+    /**
+     * Returns the smallest element that is greater than or equal to a probe key.
+     *
+     * @param key a probe comparing itself against stored elements
+     * @return the ceiling element, or null if there is none
+     */
+    public T ceilingKey(Comparable<? super T> key) {
+        T best = null;
+        Node node = root;
+        while (node != null) {
+            if (key.compareTo(node.data) <= 0) {
+                // node qualifies; a closer one can only be to its left.
+                best = node.data;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the greatest element whose key is at most tolerance above the target.
+     * The offset function must return key(element) - target and must not
+     * decrease along the tree's order.
+     *
+     * @param offset    the signed distance of an element's key from the target
+     * @param tolerance how far above the target still counts as equal (>= 0)
+     * @return the floor element, or null if there is none
+     */
+    public T floorWithin(ToDoubleFunction<? super T> offset, double tolerance) {
+        return floorKey(e -> (offset.applyAsDouble(e) <= tolerance) ? 0 : -1);
+    }
+
+    /**
+     * Returns the smallest element whose key is at most tolerance below the target.
+     * See floorWithin for the contract of the offset function.
+     *
+     * @param offset    the signed distance of an element's key from the target
+     * @param tolerance how far below the target still counts as equal (>= 0)
+     * @return the ceiling element, or null if there is none
+     */
+    public T ceilingWithin(ToDoubleFunction<? super T> offset, double tolerance) {
+        return ceilingKey(e -> (offset.applyAsDouble(e) >= -tolerance) ? 0 : 1);
+    }
+
+    /**
+     * Returns the element whose key is closest to the target, provided it is
+     * within the tolerance. On a tie the smaller element wins.
+     * See floorWithin for the contract of the offset function.
+     *
+     * @param offset    the signed distance of an element's key from the target
+     * @param tolerance the largest distance accepted (may be infinite)
+     * @return the nearest element, or null if none is close enough
+     */
+    public T nearestWithin(ToDoubleFunction<? super T> offset, double tolerance) {
+        T below = floorWithin(offset, 0);
+        T above = ceilingWithin(offset, 0);
+        double belowDist = (below == null) ? Double.POSITIVE_INFINITY
+                                           : Math.abs(offset.applyAsDouble(below));
+        double aboveDist = (above == null) ? Double.POSITIVE_INFINITY
+                                           : Math.abs(offset.applyAsDouble(above));
+        if (below != null && belowDist <= aboveDist) {
+            return (belowDist <= tolerance) ? below : null;
+        }
+        return (above != null && aboveDist <= tolerance) ? above : null;
+    }
+
+    /**
+     * Returns, in ascending order, every element whose key is within the
+     * tolerance of the target. See floorWithin for the contract of the offset function.
+     *
+     * @param offset    the signed distance of an element's key from the target
+     * @param tolerance the largest distance accepted (>= 0)
+     * @return the matching elements
+     */
+    public List<T> equalWithin(ToDoubleFunction<? super T> offset, double tolerance) {
+        return betweenKeys(e -> (offset.applyAsDouble(e) >= -tolerance) ? 0 : 1,
+                           e -> (offset.applyAsDouble(e) <= tolerance) ? 0 : -1);
+    }
+
+    /* ======================================================
+       RANGE QUERIES AND PAGINATION
+       ====================================================== */
+
+    /**
+     * Returns, in ascending order, every element x with lo <= x <= hi.
+     *
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the elements in the range
+     */
+    public List<T> between(T lo, T hi) {
+        return betweenKeys(probe(lo), probe(hi));
+    }
+
+    /**
+     * Returns a lazy iterator over the elements between two probe keys
+     * (inclusive), in ascending order. Like betweenKeys, but nothing is
+     * visited until next() is called, so a caller can stop early.
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return an in-order iterator over the range
+     */
+    public Iterator<T> rangeIterator(Comparable<? super T> lo, Comparable<? super T> hi) {
+        return new RangeIterator(lo, hi);
+    }
+
+    /**
+     * Counts the elements between two probe keys (inclusive) in time
+     * proportional to the height, using the stored subtree sizes.
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return the number of elements in the range
+     */
+    public int countBetweenKeys(Comparable<? super T> lo, Comparable<? super T> hi) {
+        // Elements <= hi, minus elements < lo.
+        int atMostHi = 0;
+        Node node = root;
+        while (node != null) {
+            if (hi.compareTo(node.data) >= 0) {
+                atMostHi += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return Math.max(0, atMostHi - rankKeys(lo));
+    }
+
+    /**
+     * Returns, in ascending order, every element between two probe keys (inclusive).
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return the elements in the range
+     */
+    public List<T> betweenKeys(Comparable<? super T> lo, Comparable<? super T> hi) {
+        List<T> result = new ArrayList<>();
+        // Seed the stack with the path to the first element >= lo.
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null) {
+            if (lo.compareTo(node.data) <= 0) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (hi.compareTo(current.data) < 0) {
+                break;
+            }
+            result.add(current.data);
+            pushLeftSpine(current.right, stack);
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to limit elements in ascending order, starting at the
+     * offset-th smallest. Useful for paging through the tree.
+     *
+     * @param offset the index of the first element to return
+     * @param limit  the maximum number of elements to return
+     * @return the elements of the page (empty if offset is past the end)
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    public List<T> page(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("page(): offset and limit must be >= 0");
+        }
+        List<T> result = new ArrayList<>(Math.min(limit, Math.max(0, size(root) - offset)));
+        if (offset >= size(root)) {
+            return result;
+        }
+        // Seed the stack with the path to the offset-th element, as select() finds it.
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        int k = offset;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (k == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                k -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        while (result.size() < limit && !stack.isEmpty()) {
+            Node current = stack.pop();
+            result.add(current.data);
+            pushLeftSpine(current.right, stack);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a probe that compares a value against stored elements
+     * using this tree's ordering.
+     *
+     * @param data the value to compare
+     * @return the probe
+     */
+    private Comparable<T> probe(T data) {
+        return element -> comparator.compare(data, element);
+    }
+
+    /**
+     * Pushes a node and all of its left descendants onto a traversal stack.
+     *
+     * @param node  the subtree root (may be null)
+     * @param stack the in-order traversal stack
+     */
+    private void pushLeftSpine(Node node, Deque<Node> stack) {
+        while (node != null) {
+            stack.push(node);
+            node = node.left;
+        }
+    }
+
+    /* ======================================================
+       BALANCING HOOKS
+       ====================================================== */
+
+    /**
+     * Returns the stored height of a subtree, or -1 for an empty one.
+     *
+     * @param node the subtree root (may be null)
+     * @return the height of the subtree
+     */
+    protected int height(Node node) {
+        return (node == null) ? -1 : node.height;
+    }
+
+    /**
+     * Returns the stored size of a subtree, or 0 for an empty one.
+     *
+     * @param node the subtree root (may be null)
+     * @return the number of nodes in the subtree
+     */
+    protected int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Recomputes a node's height and size from its children.
+     *
+     * @param node the node to update
+     */
+    protected void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * Called on every node along the path of an insert or remove, bottom up,
+     * after its children have changed. The plain BST only refreshes the height and size.
+     *
+     * @param node the node whose children may have changed
+     * @return the node that now roots this subtree
+     */
+    protected Node rebalance(Node node) {
+        update(node);
         return node;
     }
 
@@ -291,6 +817,252 @@ public class BST<T extends Comparable<T>> {
        TRAVERSALS
        ====================================================== */
 
+    /**
+     * Returns a lazy iterator over the elements in **in-order** (ascending) form.
+     * Only the current root-to-node path is held, and nodes are visited as
+     * next() is called.
+     *
+     * @return an in-order iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new InOrderIterator();
+    }
+
+    /**
+     * Returns a spliterator over the elements in ascending order.
+     *
+     * @return an ordered, sized spliterator
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), getSize(),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements in **pre-order** (root-left-right).
+     *
+     * @return a pre-order iterator
+     */
+    public Iterator<T> preOrderIterator() {
+        return new PreOrderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the elements in **post-order** (left-right-root).
+     *
+     * @return a post-order iterator
+     */
+    public Iterator<T> postOrderIterator() {
+        return new PostOrderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the elements in **level-order** (BFS).
+     *
+     * @return a level-order iterator
+     */
+    public Iterator<T> levelOrderIterator() {
+        return new LevelOrderIterator();
+    }
+
+    /**
+     * Common fail-fast bookkeeping for the lazy iterators.
+     */
+    private abstract class TreeIterator implements Iterator<T> {
+        // The modification count the iterator was created with.
+        private final int expectedModCount = modCount;
+
+        /**
+         * Checks that the tree has not been modified since the iterator was created.
+         *
+         * @throws ConcurrentModificationException if it has
+         */
+        void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public T next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return advance().data;
+        }
+
+        /**
+         * Moves to and returns the next node; only called when hasNext() is true.
+         *
+         * @return the next node in this iterator's order
+         */
+        abstract Node advance();
+    }
+
+    /**
+     * In-order iterator holding the stack of pending ancestors.
+     */
+    private class InOrderIterator extends TreeIterator {
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        InOrderIterator() {
+            pushLeftSpine(root, stack);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        Node advance() {
+            Node current = stack.pop();
+            pushLeftSpine(current.right, stack);
+            return current;
+        }
+    }
+
+    /**
+     * In-order iterator over a key range: the stack starts on the path to the
+     * first element >= lo, and iteration ends at the first element > hi.
+     */
+    private class RangeIterator extends TreeIterator {
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private final Comparable<? super T> hi;
+
+        RangeIterator(Comparable<? super T> lo, Comparable<? super T> hi) {
+            this.hi = hi;
+            Node node = root;
+            while (node != null) {
+                if (lo.compareTo(node.data) <= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && hi.compareTo(stack.peek().data) >= 0;
+        }
+
+        @Override
+        Node advance() {
+            Node current = stack.pop();
+            pushLeftSpine(current.right, stack);
+            return current;
+        }
+    }
+
+    /**
+     * Pre-order iterator holding the stack of subtrees still to visit.
+     */
+    private class PreOrderIterator extends TreeIterator {
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        PreOrderIterator() {
+            if (root != null) {
+                stack.push(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        Node advance() {
+            Node current = stack.pop();
+            // Push right first so the left subtree is visited first.
+            if (current.right != null) {
+                stack.push(current.right);
+            }
+            if (current.left != null) {
+                stack.push(current.left);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Post-order iterator holding the stack of ancestors whose right subtree
+     * may still be pending.
+     */
+    private class PostOrderIterator extends TreeIterator {
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private Node lastVisited;
+
+        PostOrderIterator() {
+            descend(root);
+        }
+
+        /**
+         * Pushes the path to the first node to visit in post-order below node:
+         * go left when possible, otherwise right, until reaching a leaf.
+         */
+        private void descend(Node node) {
+            while (node != null) {
+                stack.push(node);
+                node = (node.left != null) ? node.left : node.right;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        Node advance() {
+            Node current = stack.pop();
+            lastVisited = current;
+            // If current was a left child, its parent's right subtree comes next.
+            if (!stack.isEmpty()) {
+                Node parent = stack.peek();
+                if (parent.left == lastVisited && parent.right != null) {
+                    descend(parent.right);
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Level-order iterator holding the queue of the next nodes to visit.
+     */
+    private class LevelOrderIterator extends TreeIterator {
+        private final Queue<Node> queue = new LinkedList<>();
+
+        LevelOrderIterator() {
+            if (root != null) {
+                queue.offer(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        Node advance() {
+            Node current = queue.poll();
+            if (current.left != null) {
+                queue.offer(current.left);
+            }
+            if (current.right != null) {
+                queue.offer(current.right);
+            }
+            return current;
+        }
+    }
+
     /**
      * Returns all elements of the tree in **in-order** (ascending) form.
      *
@@ -303,16 +1075,24 @@ public class BST<T extends Comparable<T>> {
     }
 
     /**
-     * Private recursive helper for in-order traversal.
+     * Private helper for in-order traversal using an explicit stack.
      *
-     * @param node the current node
+     * @param node the root of the subtree to traverse
      * @param list the list accumulating the traversal result
      */
     private void inOrderHelper(Node node, List<T> list) {
-        if (node == null) return;
-        inOrderHelper(node.left, list);
-        list.add(node.data);
-        inOrderHelper(node.right, list);
+        Deque<Node> stack = new ArrayDeque<>();
+        Node current = node;
+        while (current != null || !stack.isEmpty()) {
+            // Walk as far left as possible, remembering the path.
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            list.add(current.data);
+            current = current.right;
+        }
     }
 
     /**
@@ -322,23 +1102,12 @@ public class BST<T extends Comparable<T>> {
      */
     public String inOrderString() {
         StringBuilder sb = new StringBuilder();
-        inOrderString(root, sb);
+        for (T data : inOrderTraversal()) {
+            sb.append(data).append(" ");
+        }
         return sb.toString().trim();
     }
 
-    /**
-     * Private helper for inOrderString.
-     *
-     * @param node the current node
-     * @param sb the StringBuilder accumulating the result
-     */
-    private void inOrderString(Node node, StringBuilder sb) {
-        if (node == null) return;
-        inOrderString(node.left, sb);
-        sb.append(node.data).append(" ");
-        inOrderString(node.right, sb);
-    }
-
     /**
      * Returns all elements in **pre-order** (root-left-right).
      *
@@ -346,23 +1115,24 @@ public class BST<T extends Comparable<T>> {
      */
     public List<T> preOrderTraversal() {
         List<T> list = new ArrayList<>();
-        preOrderHelper(root, list);
+        Deque<Node> stack = new ArrayDeque<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            list.add(current.data);
+            // Push right first so the left subtree is visited first.
+            if (current.right != null) {
+                stack.push(current.right);
+            }
+            if (current.left != null) {
+                stack.push(current.left);
+            }
+        }
         return list;
     }
 
-    /**
-     * Private recursive helper for pre-order traversal.
-     *
-     * @param node the current node
-     * @param list the list accumulating the traversal result
-     */
-    private void preOrderHelper(Node node, List<T> list) {
-        if (node == null) return;
-        list.add(node.data);
-        preOrderHelper(node.left, list);
-        preOrderHelper(node.right, list);
-    }
-
     /**
      * Returns all elements in **post-order** (left-right-root).
      *
@@ -370,23 +1140,26 @@ public class BST<T extends Comparable<T>> {
      */
     public List<T> postOrderTraversal() {
         List<T> list = new ArrayList<>();
-        postOrderHelper(root, list);
+        Deque<Node> stack = new ArrayDeque<>();
+        Node current = root;
+        Node lastVisited = null;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            Node top = stack.peek();
+            if (top.right != null && top.right != lastVisited) {
+                // Visit the right subtree before the node itself.
+                current = top.right;
+            } else {
+                list.add(top.data);
+                lastVisited = stack.pop();
+            }
+        }
         return list;
     }
 
-    /**
-     * Private recursive helper for post-order traversal.
-     *
-     * @param node the current node
-     * @param list the list accumulating the traversal result
-     */
-    private void postOrderHelper(Node node, List<T> list) {
-        if (node == null) return;
-        postOrderHelper(node.left, list);
-        postOrderHelper(node.right, list);
-        list.add(node.data);
-    }
-
     /**
      * Returns all elements in **level-order** (BFS).
      *
@@ -417,7 +1190,7 @@ public class BST<T extends Comparable<T>> {
     }
 
     /* ======================================================
-       OPTIONAL EXAMPLE: LOWEST COMMON ANCESTOR 
+       OPTIONAL EXAMPLE: LOWEST COMMON ANCESTOR
        (sometimes called sharedPrecursor in course assignments)
        ====================================================== */
 
@@ -434,39 +1207,26 @@ public class BST<T extends Comparable<T>> {
         if (search(data1) == null || search(data2) == null) {
             return null; // If either value is missing, no LCA exists.
         }
-        Node ancestor = sharedPrecursor(root, data1, data2);
-        return (ancestor == null) ? null : ancestor.data;
-    }
-
-    /**
-     * Private helper for finding the lowest common ancestor (LCA).
-     *
-     * @param node the current node
-     * @param data1 the first value
-     * @param data2 the second value
-     * @return the node representing the LCA, or null if not found
-     */
-    private Node sharedPrecursor(Node node, T data1, T data2) {
-        if (node == null) {
-            return null;
-        }
-        int cmp1 = data1.compareTo(node.data);
-        int cmp2 = data2.compareTo(node.data);
-
-        // If both values are smaller, the LCA lies in the left subtree.
-        if (cmp1 < 0 && cmp2 < 0) {
-            return sharedPrecursor(node.left, data1, data2);
-        }
-        // If both values are larger, the LCA lies in the right subtree.
-        if (cmp1 > 0 && cmp2 > 0) {
-            return sharedPrecursor(node.right, data1, data2);
+        Node node = root;
+        while (node != null) {
+            int cmp1 = comparator.compare(data1, node.data);
+            int cmp2 = comparator.compare(data2, node.data);
+            if (cmp1 < 0 && cmp2 < 0) {
+                // If both values are smaller, the LCA lies in the left subtree.
+                node = node.left;
+            } else if (cmp1 > 0 && cmp2 > 0) {
+                // If both values are larger, the LCA lies in the right subtree.
+                node = node.right;
+            } else {
+                // Otherwise, current node is the LCA.
+                return node.data;
+            }
         }
-        // Otherwise, current node is the LCA.
-        return node;
+        return null;
     }
-    
+
     /* ======================================================
-       toString, EQUALS, and so on 
+       toString, EQUALS, and so on
        (optional or based on preference)
        ====================================================== */
 
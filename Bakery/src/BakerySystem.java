@@ -1,7 +1,9 @@
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 
 // Main class for the Bakery System.
 public class BakerySystem {
@@ -10,17 +12,26 @@ public class BakerySystem {
     private final ProductCatalog catalog;
     private final PriorityQueue orderQueue;
     private final List<Order> allOrders;
-    private final HashTable<Customer> customers;
-    private final HashTable<Employee> employees;
+    private final ShippedOrderIndex shippedOrders;
+    private final Table<Customer> customers;
+    private final Table<Employee> employees;
 
-    // Constructor initializes all components and loads initial data.
+    // Constructor initializes all components using chained hash tables for users.
     public BakerySystem() {
+        this(Table.Kind.CHAINED);
+    }
+
+    // Constructor initializes all components and loads initial data,
+    // storing customers and employees in hash tables of the given kind.
+    public BakerySystem(Table.Kind tableKind) {
         fileHandler = new FileHandler();
         catalog = new ProductCatalog();
         orderQueue = new PriorityQueue();
         allOrders = new ArrayList<>();
-        customers = new HashTable<>(20);
-        employees = new HashTable<>(20);
+        shippedOrders = new ShippedOrderIndex();
+        // Users are keyed by their normalized email so logins can look them up directly.
+        customers = Table.create(tableKind, 20, User::getEmail);
+        employees = Table.create(tableKind, 20, User::getEmail);
         initializeData();
     }
 
@@ -32,9 +43,7 @@ public class BakerySystem {
             
             // Check if products were loaded, otherwise optionally add sample products.
             if (productList != null && !productList.isEmpty()) {
-                for (Product p : productList) {
-                    catalog.addProduct(p);
-                }
+                catalog.addAll(productList);
             } else {
                 System.out.println("No products found in products.txt. Loading default sample products.");
                 // If file is empty or not found, create default sample products.
@@ -45,9 +54,7 @@ public class BakerySystem {
                     "Soft brioche filled with sweet custard", null, 280));
                 productList.add(new Product("Brioche", "Pastry", 3.20, 20,
                     "Soft, buttery bread", null, 810));
-                for (Product p : productList) {
-                    catalog.addProduct(p);
-                }
+                catalog.addAll(productList);
             }
     
             // Load customers from customers.txt
@@ -65,6 +72,32 @@ public class BakerySystem {
                     employees.add((Employee) u);
                 }
             }
+
+            // Restore the orders saved at the last exit.
+            List<Order> orders = fileHandler.readOrdersFromFile("orders.csv");
+            List<Order> pending = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (Order o : orders) {
+                if (!seen.add(o.getId())) {
+                    System.out.println("Skipping duplicate order " + o.getId());
+                    continue;
+                }
+                allOrders.add(o);
+                Customer c = customers.getByKey(User.normalizeEmail(o.getCustomerId()));
+                if (o.isShipped()) {
+                    shippedOrders.add(o);
+                    if (c != null) {
+                        c.getShippedOrders().addLast(o);
+                    }
+                } else {
+                    pending.add(o);
+                    if (c != null) {
+                        c.addUnshippedOrder(o);
+                    }
+                }
+            }
+            // Build the queue of unshipped orders in one O(n) pass.
+            orderQueue.insertAll(pending);
         } catch (IOException e) {
             // Handle any exceptions that occur during file operations.
             System.out.println("Error loading data: " + e.getMessage());
@@ -123,9 +156,8 @@ public class BakerySystem {
         System.out.print("Enter password: ");
         String pw = sc.nextLine().trim();
 
-        // Create a temporary customer object to search in the hash table.
-        Customer key = new Customer("", "", email, pw);
-        Customer found = customers.get(key);
+        // Look the customer up by normalized email.
+        Customer found = customers.getByKey(User.normalizeEmail(email));
         if (found == null || !found.getPassword().equals(pw)) {
             System.out.println("Invalid credentials.");
             return;
@@ -174,9 +206,8 @@ public class BakerySystem {
         System.out.print("Enter password: ");
         String pw = sc.nextLine().trim();
 
-        // Create a temporary employee object to search in the hash table.
-        Employee key = new Employee("", "", email, pw, managerMode);
-        Employee found = employees.get(key);
+        // Look the employee up by normalized email.
+        Employee found = employees.getByKey(User.normalizeEmail(email));
         if (found == null || !found.getPassword().equals(pw)) {
             System.out.println("Invalid credentials.");
             return;
@@ -189,10 +220,10 @@ public class BakerySystem {
 
         // Launch the appropriate menu based on login type.
         if (managerMode) {
-            ManagerMenu mm = new ManagerMenu(orderQueue, allOrders, customers, employees, catalog);
+            ManagerMenu mm = new ManagerMenu(orderQueue, allOrders, shippedOrders, customers, employees, catalog);
             mm.showMenu();
         } else {
-            EmployeeMenu em = new EmployeeMenu(orderQueue, allOrders, customers, employees);
+            EmployeeMenu em = new EmployeeMenu(orderQueue, allOrders, shippedOrders, customers, employees);
             em.showMenu();
         }
     }
@@ -218,8 +249,17 @@ public class BakerySystem {
     }
 
     // Main method to run the Bakery System.
+    // An optional argument selects the user table kind (CHAINED, OPEN_ADDRESSING or CONCURRENT).
     public static void main(String[] args) {
-        BakerySystem bs = new BakerySystem();
+        Table.Kind kind = Table.Kind.CHAINED;
+        if (args.length > 0) {
+            try {
+                kind = Table.Kind.valueOf(args[0].trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown table kind " + args[0] + ", using " + kind + ".");
+            }
+        }
+        BakerySystem bs = new BakerySystem(kind);
         bs.start();
     }
 }
@@ -0,0 +1,461 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, point-in-time view of a ProductCatalog for concurrent readers.
+ *
+ * A snapshot holds frozen copies of the products (see Product.copy) in
+ * persistent trees by name, price and calories, plus a name tree and a price
+ * tree per category. Neither the trees nor the copies change after the
+ * snapshot is published, so any number of threads can read one without locks
+ * and always see the catalog as it was at a single moment: counts, orders and
+ * search results all agree.
+ *
+ * Text search and allergen filtering use a SearchIndex and an AllergenIndex.
+ * Those are too costly to copy on every edit, so a snapshot shares them with
+ * earlier snapshots: they are built once over the products of some earlier
+ * version (the base) and never modified afterwards, and the snapshot also keeps
+ * the products changed since then, by id. A lookup asks the base, drops the
+ * hits that have changed since, and checks the current copies of the changed
+ * products directly. The base is indexed in name order, so its hits need no
+ * sorting, only a merge with the changed products. The writer rebuilds the
+ * indexes before publishing once more than REBUILD_AFTER products have changed
+ * (see reindexed), so a lookup never checks more than that many directly.
+ *
+ * The catalog builds the next snapshot from the current one by path copying,
+ * which costs O(log n) new nodes per changed product, and publishes it with a
+ * single volatile write (see ProductCatalog.snapshot).
+ */
+public final class CatalogSnapshot {
+
+    // Most products a lookup checks outside the indexes; more changes trigger a rebuild.
+    private static final int REBUILD_AFTER = 256;
+
+    // Inner static class holding the products of one category (read by QueryPlanner).
+    static final class Category {
+        // Orders categories by their lowercase key.
+        static final Comparator<Category> BY_KEY = Comparator.comparing(c -> c.key);
+
+        // The lowercase key (see ProductCatalog.categoryKey).
+        final String key;
+        // The category name as first added.
+        final String name;
+        // The category's products sorted by name (using Product.BY_NAME).
+        final PersistentTree<Product> byName;
+        // The category's products sorted by price (using Product.BY_PRICE).
+        final PersistentTree<Product> byPrice;
+
+        Category(String name) {
+            this(ProductCatalog.categoryKey(name), name,
+                 new PersistentTree<>(Product.BY_NAME), new PersistentTree<>(Product.BY_PRICE));
+        }
+
+        Category(String key, String name, PersistentTree<Product> byName, PersistentTree<Product> byPrice) {
+            this.key = key;
+            this.name = name;
+            this.byName = byName;
+            this.byPrice = byPrice;
+        }
+    }
+
+    // Inner static class holding the shared text and allergen indexes.
+    private static final class Indexes {
+        // Orders products by id alone, so any copy of a product finds the others.
+        static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+        // Indexes of an empty catalog.
+        static final Indexes EMPTY = new Indexes(new SearchIndex(), new AllergenIndex(),
+                                                 new PersistentTree<>(BY_ID));
+
+        // Text index over the base products; never modified once built.
+        final SearchIndex text;
+        // Allergen bitmaps over the base products; never modified once built.
+        final AllergenIndex allergens;
+        // A copy of every product added, changed or removed since the base, by id.
+        final PersistentTree<Product> changed;
+
+        Indexes(SearchIndex text, AllergenIndex allergens, PersistentTree<Product> changed) {
+            this.text = text;
+            this.allergens = allergens;
+            this.changed = changed;
+        }
+
+        /**
+         * Builds indexes whose base is the given products, with nothing changed.
+         * Products are indexed in the order given; both indexes return their
+         * hits in that order, so building from a name tree keeps hits in name order.
+         */
+        static Indexes build(Iterable<Product> products) {
+            SearchIndex text = new SearchIndex();
+            AllergenIndex allergens = new AllergenIndex();
+            for (Product p : products) {
+                text.add(p);
+                allergens.add(p);
+            }
+            return new Indexes(text, allergens, EMPTY.changed);
+        }
+
+        /**
+         * Returns indexes that also record a product as changed.
+         */
+        Indexes changed(Product p) {
+            return new Indexes(text, allergens, changed.insert(p));
+        }
+    }
+
+    // The snapshot of an empty catalog.
+    public static final CatalogSnapshot EMPTY =
+            new CatalogSnapshot(new PersistentTree<>(Product.BY_NAME),
+                                new PersistentTree<>(Product.BY_PRICE),
+                                new PersistentTree<>(Product.BY_CALORIES),
+                                new PersistentTree<>(Category.BY_KEY),
+                                Indexes.EMPTY);
+
+    // Frozen products sorted by name (using Product.BY_NAME).
+    private final PersistentTree<Product> byName;
+    // The same frozen products sorted by price (using Product.BY_PRICE).
+    private final PersistentTree<Product> byPrice;
+    // The same frozen products sorted by calories (using Product.BY_CALORIES).
+    private final PersistentTree<Product> byCalories;
+    // Per-category trees, sorted by lowercase category name.
+    private final PersistentTree<Category> categories;
+    // Text and allergen indexes, shared with the snapshots since their base.
+    private final Indexes indexes;
+
+    private CatalogSnapshot(PersistentTree<Product> byName,
+                            PersistentTree<Product> byPrice,
+                            PersistentTree<Product> byCalories,
+                            PersistentTree<Category> categories,
+                            Indexes indexes)
+    {
+        this.byName = byName;
+        this.byPrice = byPrice;
+        this.byCalories = byCalories;
+        this.categories = categories;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Returns a snapshot holding a frozen copy of a product's current state,
+     * replacing the copy of any earlier state of the same product.
+     *
+     * @param p the live product
+     * @return the new snapshot; this one is unchanged
+     */
+    CatalogSnapshot with(Product p) {
+        PersistentTree<Product> prices = byPrice;
+        PersistentTree<Product> calories = byCalories;
+        Category cat = category(p.getCategory());
+        if (cat == null) {
+            cat = new Category(p.getCategory());
+        }
+        PersistentTree<Product> catPrices = cat.byPrice;
+        // Names never change, so the old copy is found by name and id; its
+        // price and calories locate it in the other trees.
+        Product old = byName.get(p);
+        if (old != null) {
+            prices = prices.remove(old);
+            calories = calories.remove(old);
+            catPrices = catPrices.remove(old);
+        }
+        Product frozen = p.copy();
+        cat = new Category(cat.key, cat.name, cat.byName.insert(frozen), catPrices.insert(frozen));
+        return new CatalogSnapshot(byName.insert(frozen), prices.insert(frozen),
+                                   calories.insert(frozen), categories.insert(cat),
+                                   indexes.changed(frozen));
+    }
+
+    /**
+     * Returns a snapshot without a product.
+     *
+     * @param p the live product
+     * @return the new snapshot, or this one if the product was not in it
+     */
+    CatalogSnapshot without(Product p) {
+        Product old = byName.get(p);
+        if (old == null) {
+            return this;
+        }
+        Category cat = category(old.getCategory());
+        cat = new Category(cat.key, cat.name, cat.byName.remove(old), cat.byPrice.remove(old));
+        // Drop a category once its last product is gone.
+        PersistentTree<Category> cats = cat.byName.isEmpty() ? categories.remove(cat) : categories.insert(cat);
+        return new CatalogSnapshot(byName.remove(old), byPrice.remove(old), byCalories.remove(old),
+                                   cats, indexes.changed(old));
+    }
+
+    /**
+     * Returns a snapshot to publish in place of this one: this snapshot, or one
+     * with the same products whose indexes are built afresh over them if more
+     * than REBUILD_AFTER products have changed since the indexes were built.
+     * Writers call it once per operation, so a batch rebuilds at most once.
+     *
+     * @return the snapshot to publish
+     */
+    CatalogSnapshot reindexed() {
+        if (indexes.changed.size() <= REBUILD_AFTER) {
+            return this;
+        }
+        return new CatalogSnapshot(byName, byPrice, byCalories, categories, Indexes.build(byName));
+    }
+
+    /**
+     * Returns the category with a name (ignoring case).
+     *
+     * @param name the category name
+     * @return the category, or null if no product has it
+     */
+    Category category(String name) {
+        String key = ProductCatalog.categoryKey(name);
+        Category cat = categories.ceilingKey(c -> key.compareTo(c.key));
+        return (cat != null && cat.key.equals(key)) ? cat : null;
+    }
+
+    // The persistent trees, for QueryPlanner.
+    PersistentTree<Product> nameTree()    { return byName; }
+    PersistentTree<Product> priceTree()   { return byPrice; }
+    PersistentTree<Product> calorieTree() { return byCalories; }
+
+    /**
+     * Returns the number of products in the snapshot.
+     *
+     * @return the product count
+     */
+    public int getProductCount() {
+        return byName.size();
+    }
+
+    /**
+     * Returns this snapshot's copy of a product.
+     *
+     * @param p the product, or any copy of it
+     * @return the frozen copy, or null if the product is not in the snapshot
+     */
+    public Product find(Product p) {
+        return byName.get(p);
+    }
+
+    /**
+     * Searches for a product by its name (ignoring case).
+     * If several products share the name, the one with the lexicographically
+     * smallest id is returned; ids compare as strings, so "P10000" precedes "P9999".
+     *
+     * @param name the product name to search for
+     * @return the frozen copy of the matching product if found, otherwise null
+     */
+    public Product findByName(String name) {
+        // Probe the name tree by name alone; the id tie-break is ignored.
+        Product first = byName.ceilingKey(p -> name.compareToIgnoreCase(p.getName()));
+        return (first != null && first.getName().equalsIgnoreCase(name)) ? first : null;
+    }
+
+    /**
+     * Returns the products whose name, category or description contains a
+     * keyword, ignoring case. Uses the inverted text index, so only candidate
+     * products are checked.
+     *
+     * @param keyword the partial text to search for
+     * @return the matching products, sorted by name
+     */
+    public List<Product> search(String keyword) {
+        List<Product> changedMatches = new ArrayList<>();
+        for (Product c : indexes.changed) {
+            Product current = byName.get(c);
+            if (current != null && SearchIndex.matches(current, keyword)) {
+                changedMatches.add(current);
+            }
+        }
+        return mergeByName(unchanged(indexes.text.search(keyword)), changedMatches);
+    }
+
+    /**
+     * Returns every product that contains none of the given allergens, sorted by name.
+     * Runs as word-wide bitwise operations over the allergen bitmaps.
+     *
+     * @param excluded the allergen names to avoid (ignoring case)
+     * @return the products free of all of them
+     */
+    public List<Product> findWithoutAllergens(Collection<String> excluded) {
+        return without(Allergens.lookupMask(excluded));
+    }
+
+    /**
+     * Returns the number of products that contain an allergen.
+     *
+     * @param allergen the allergen name (ignoring case)
+     * @return the product count
+     */
+    public int countWithAllergen(String allergen) {
+        int bit = Allergens.bitOf(allergen);
+        if (bit < 0) {
+            return 0;
+        }
+        return recount(indexes.allergens.countWith(bit), p -> p.hasAnyAllergen(1L << bit));
+    }
+
+    /**
+     * Returns the products free of every allergen in a mask, sorted by name.
+     */
+    List<Product> without(long mask) {
+        List<Product> changedMatches = new ArrayList<>();
+        for (Product c : indexes.changed) {
+            Product current = byName.get(c);
+            if (current != null && !current.hasAnyAllergen(mask)) {
+                changedMatches.add(current);
+            }
+        }
+        return mergeByName(unchanged(indexes.allergens.without(mask)), changedMatches);
+    }
+
+    /**
+     * Returns the number of products free of every allergen in a mask: one pass
+     * over the bitmaps plus the products changed since they were built.
+     */
+    int countWithout(long mask) {
+        return recount(indexes.allergens.countWithout(mask), p -> !p.hasAnyAllergen(mask));
+    }
+
+    /**
+     * Drops the base-index hits for products that have changed since the base
+     * was built; the current copies of those are checked separately.
+     *
+     * @param hits the hits, in name order
+     * @return the hits still current, in name order
+     */
+    private List<Product> unchanged(List<Product> hits) {
+        if (indexes.changed.isEmpty()) {
+            return hits;
+        }
+        List<Product> result = new ArrayList<>(hits.size());
+        for (Product p : hits) {
+            if (indexes.changed.get(p) == null) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges base-index hits, already in name order, with matching changed
+     * products, which are few and are sorted here.
+     *
+     * @param base    the unchanged hits, sorted by name
+     * @param changed the current copies of matching changed products
+     * @return all of them, sorted by name
+     */
+    private static List<Product> mergeByName(List<Product> base, List<Product> changed) {
+        if (changed.isEmpty()) {
+            return base;
+        }
+        changed.sort(Product.BY_NAME);
+        List<Product> result = new ArrayList<>(base.size() + changed.size());
+        int i = 0;
+        int j = 0;
+        while (i < base.size() && j < changed.size()) {
+            if (Product.BY_NAME.compare(base.get(i), changed.get(j)) <= 0) {
+                result.add(base.get(i++));
+            } else {
+                result.add(changed.get(j++));
+            }
+        }
+        result.addAll(base.subList(i, base.size()));
+        result.addAll(changed.subList(j, changed.size()));
+        return result;
+    }
+
+    /**
+     * Corrects a count taken from the base allergen index for the products
+     * changed since it was built. A product's allergens never change, so any
+     * copy of it decides whether it is counted.
+     *
+     * @param baseCount the count over the base products
+     * @param counted   whether a product belongs in the count
+     * @return the count over this snapshot's products
+     */
+    private int recount(int baseCount, Predicate<Product> counted) {
+        int count = baseCount;
+        for (Product c : indexes.changed) {
+            if (counted.test(c)) {
+                if (indexes.allergens.contains(c)) {
+                    count--;
+                }
+                if (byName.get(c) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs a combined query. The most selective index for the query's
+     * predicates supplies the candidates, every predicate is checked on each
+     * candidate, and the matches are sorted and limited (see QueryPlanner).
+     *
+     * @param q the query to run
+     * @return the matching products, sorted and limited as the query asks
+     */
+    public List<Product> query(ProductQuery q) {
+        return new QueryPlanner(this).query(q);
+    }
+
+    /**
+     * Describes how query() would run a query (see QueryPlanner.explain).
+     *
+     * @param q the query to explain
+     * @return a multi-line description of the plan
+     */
+    public String explain(ProductQuery q) {
+        return new QueryPlanner(this).explain(q);
+    }
+
+    /**
+     * Returns all products priced between lo and hi (inclusive), cheapest first.
+     *
+     * @param lo the minimum price
+     * @param hi the maximum price
+     * @return the products in the price range
+     */
+    public List<Product> findByPriceRange(double lo, double hi) {
+        return byPrice.betweenKeys(p -> Double.compare(lo, p.getPrice()),
+                                   p -> Double.compare(hi, p.getPrice()));
+    }
+
+    /**
+     * Returns the products sorted by name without copying them into a list.
+     *
+     * @return an Iterable over the products in name order
+     */
+    public Iterable<Product> productsByName() {
+        return byName;
+    }
+
+    /**
+     * Returns the products sorted by price without copying them into a list.
+     *
+     * @return an Iterable over the products in price order
+     */
+    public Iterable<Product> productsByPrice() {
+        return byPrice;
+    }
+
+    /**
+     * Returns all products sorted by name.
+     *
+     * @return a new list of the products in name order
+     */
+    public List<Product> getAllByName() {
+        return byName.toList();
+    }
+
+    /**
+     * Returns all products sorted by price.
+     *
+     * @return a new list of the products in price order
+     */
+    public List<Product> getAllByPrice() {
+        return byPrice.toList();
+    }
+}
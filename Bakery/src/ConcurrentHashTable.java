@@ -0,0 +1,341 @@
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe chained hash table using lock striping.
+ * The type T must implement proper hashCode() and equals() methods.
+ *
+ * Buckets are split across a fixed number of stripes, each guarded by its own
+ * read/write lock, so lookups on different stripes never contend and lookups on
+ * the same stripe share a read lock. Bucket reads walk the list nodes without
+ * touching the LinkedList's internal iterator, which is what makes shared reads safe.
+ * The element count is a LongAdder so concurrent adds do not contend on one field.
+ *
+ * The bucket count is a power of two and a multiple of the stripe count, so an
+ * element's stripe depends only on its hash and stays the same when the table
+ * grows. Growth takes every stripe's write lock and rehashes in one step.
+ */
+public class ConcurrentHashTable<T> implements Table<T> {
+
+    // Default maximum load factor before the table grows.
+    public static final double DEFAULT_MAX_LOAD_FACTOR = 0.75;
+    // Default number of lock stripes.
+    public static final int DEFAULT_STRIPES = 16;
+
+    private final LongAdder numElements;
+    // Buckets; replaced only while every stripe's write lock is held.
+    private volatile LinkedList<T>[] table;
+    // One lock per stripe.
+    private final ReentrantReadWriteLock[] locks;
+    // Load factor above which the table grows.
+    private final double maxLoadFactor;
+    // Returns the key an element is hashed and looked up by.
+    private final Function<? super T, ?> keyOf;
+
+    /**
+     * Constructs a ConcurrentHashTable with at least the given number of buckets.
+     *
+     * @param size minimum number of buckets
+     * @throws IllegalArgumentException if size <= 0
+     */
+    public ConcurrentHashTable(int size) {
+        this(size, DEFAULT_MAX_LOAD_FACTOR, Function.identity());
+    }
+
+    /**
+     * Constructs a ConcurrentHashTable whose elements are hashed by the key the
+     * extractor returns. Two elements must be equal exactly when their keys are equal.
+     *
+     * @param size          minimum number of buckets
+     * @param maxLoadFactor load factor above which the table grows
+     * @param keyOf         returns the (non-null) key of an element
+     * @throws IllegalArgumentException if size <= 0 or maxLoadFactor <= 0
+     * @throws NullPointerException if keyOf is null
+     */
+    public ConcurrentHashTable(int size, double maxLoadFactor, Function<? super T, ?> keyOf) {
+        if (keyOf == null) {
+            throw new NullPointerException("Key extractor cannot be null");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("ConcurrentHashTable size must be > 0");
+        }
+        if (!(maxLoadFactor > 0)) {
+            throw new IllegalArgumentException("Max load factor must be > 0: " + maxLoadFactor);
+        }
+        this.maxLoadFactor = maxLoadFactor;
+        this.keyOf = keyOf;
+        this.numElements = new LongAdder();
+        locks = new ReentrantReadWriteLock[DEFAULT_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        int capacity = Math.max(Integer.highestOneBit(size), DEFAULT_STRIPES);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        table = newBuckets(capacity);
+    }
+
+    /**
+     * Allocates an array of empty buckets.
+     *
+     * @param size number of buckets
+     * @return the new bucket array
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private LinkedList<T>[] newBuckets(int size) {
+        LinkedList<T>[] buckets = (LinkedList<T>[]) new LinkedList[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new LinkedList<>();
+        }
+        return buckets;
+    }
+
+    /**
+     * Spreads the higher bits of a key's hash code into the lower bits.
+     *
+     * @param key the key to hash
+     * @return the spread hash code
+     */
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the lock guarding every bucket a hash code can map to.
+     *
+     * @param h the spread hash code
+     * @return the stripe lock
+     */
+    private ReentrantReadWriteLock lockFor(int h) {
+        return locks[h & (locks.length - 1)];
+    }
+
+    /**
+     * Returns the total number of elements in the hash table.
+     */
+    @Override
+    public int getNumElements() {
+        return numElements.intValue();
+    }
+
+    /**
+     * Searches for an element and returns it if found.
+     *
+     * @param elmt the element to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public T get(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("get(): Key cannot be null");
+        }
+        return getByKey(keyOf.apply(elmt));
+    }
+
+    /**
+     * Searches for the element with the given key.
+     *
+     * @param key the key to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    public T getByKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException("getByKey(): Key cannot be null");
+        }
+        int h = spread(key);
+        ReentrantReadWriteLock.ReadLock lock = lockFor(h).readLock();
+        lock.lock();
+        try {
+            LinkedList<T>[] buckets = table;
+            return buckets[h & (buckets.length - 1)].findByKey(key, keyOf);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the bucket index where an element is stored.
+     * The index may be stale by the time it is used if another thread grows the table.
+     *
+     * @param elmt the element to locate
+     * @return bucket index if found, or -1 otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public int find(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("find(): Element cannot be null");
+        }
+        Object key = keyOf.apply(elmt);
+        int h = spread(key);
+        ReentrantReadWriteLock.ReadLock lock = lockFor(h).readLock();
+        lock.lock();
+        try {
+            LinkedList<T>[] buckets = table;
+            int bucket = h & (buckets.length - 1);
+            return (buckets[bucket].findByKey(key, keyOf) != null) ? bucket : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the hash table contains the specified element.
+     *
+     * @param elmt the element to check
+     * @return true if found, false otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public boolean contains(T elmt) {
+        return find(elmt) != -1;
+    }
+
+    /**
+     * Adds an element to the hash table.
+     * Like HashTable, duplicates are not rejected.
+     *
+     * @param elmt the element to add
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public void add(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("add(): Element cannot be null");
+        }
+        int h = spread(keyOf.apply(elmt));
+        int buckets;
+        ReentrantReadWriteLock.WriteLock lock = lockFor(h).writeLock();
+        lock.lock();
+        try {
+            LinkedList<T>[] current = table;
+            current[h & (current.length - 1)].addLast(elmt);
+            buckets = current.length;
+        } finally {
+            lock.unlock();
+        }
+        numElements.increment();
+        if (numElements.sum() > maxLoadFactor * buckets) {
+            grow(buckets);
+        }
+    }
+
+    /**
+     * Removes an element from the hash table.
+     *
+     * @param elmt the element to remove
+     * @return true if removed, false if not found
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public boolean delete(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("delete(): Element cannot be null");
+        }
+        Object key = keyOf.apply(elmt);
+        int h = spread(key);
+        ReentrantReadWriteLock.WriteLock lock = lockFor(h).writeLock();
+        lock.lock();
+        try {
+            LinkedList<T>[] buckets = table;
+            if (!buckets[h & (buckets.length - 1)].removeByKey(key, keyOf)) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        numElements.decrement();
+        return true;
+    }
+
+    /**
+     * Doubles the number of buckets, unless another thread already grew the table.
+     *
+     * @param expected the bucket count the caller saw when deciding to grow
+     */
+    private void grow(int expected) {
+        lockAll();
+        try {
+            LinkedList<T>[] old = table;
+            if (old.length != expected) {
+                return;
+            }
+            LinkedList<T>[] bigger = newBuckets(old.length * 2);
+            for (LinkedList<T> list : old) {
+                while (!list.isEmpty()) {
+                    T elmt = list.removeFirst();
+                    bigger[spread(keyOf.apply(elmt)) & (bigger.length - 1)].addLast(elmt);
+                }
+            }
+            table = bigger;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Acquires every stripe's write lock, always in the same order.
+     */
+    private void lockAll() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+    }
+
+    /**
+     * Releases every stripe's write lock.
+     */
+    private void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the hash table.
+     */
+    @Override
+    public void clear() {
+        lockAll();
+        try {
+            for (LinkedList<T> list : table) {
+                list.clear();
+            }
+            numElements.reset();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Computes the load factor of the hash table.
+     *
+     * @return load factor (elements divided by number of buckets)
+     */
+    @Override
+    public double getLoadFactor() {
+        return numElements.doubleValue() / table.length;
+    }
+
+    @Override
+    public String toString() {
+        lockAll();
+        try {
+            StringBuilder result = new StringBuilder();
+            for (LinkedList<T> list : table) {
+                if (!list.isEmpty()) {
+                    result.append(list.toString()).append("\n");
+                }
+            }
+            return result.toString().trim();
+        } finally {
+            unlockAll();
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -5,6 +6,11 @@ import java.util.Scanner;
 // to interact with the system (e.g., search products, place orders, view orders, etc.).
 public class CustomerMenu {
 
+    // Maximum number of name suggestions shown after a failed lookup.
+    private static final int MAX_SUGGESTIONS = 5;
+    // Number of products shown per page when browsing a category.
+    private static final int CATEGORY_PAGE_SIZE = 10;
+
     // Current customer logged in.
     private Customer currentCustomer;
     // Catalog containing available products.
@@ -54,7 +60,9 @@ public class CustomerMenu {
             System.out.println("7) View Purchases (shipped + unshipped)");
             System.out.println("8) View Shipped Orders");
             System.out.println("9) View Unshipped Orders");
-            System.out.println("10) Quit (return to main menu)");
+            System.out.println("10) Browse a category");
+            System.out.println("11) List products without certain allergens");
+            System.out.println("12) Quit (return to main menu)");
             // Prompt for the user's choice.
             System.out.print("Choice: ");
 
@@ -89,6 +97,12 @@ public class CustomerMenu {
                     viewUnshipped();
                     break;
                 case "10":
+                    browseCategory();
+                    break;
+                case "11":
+                    listWithoutAllergens();
+                    break;
+                case "12":
                     keepGoing = false;
                     System.out.println("Returning to main menu...");
                     break;
@@ -99,26 +113,20 @@ public class CustomerMenu {
     }
 
     /**
-     * Searches the product catalog for products matching a partial name or category.
-     * It displays all matching products.
+     * Searches the product catalog for products matching a partial name, category
+     * or description. It displays all matching products.
      */
     private void searchProduct() {
-        System.out.print("Enter partial product name or category: ");
-        String kw = sc.nextLine().toLowerCase();
-        // Retrieve all products sorted by name.
-        List<Product> allByName = catalog.getAllByName();
-        boolean foundAny = false;
-        // Check each product for a match with the provided keyword.
-        for (Product p : allByName) {
-            if (p.getName().toLowerCase().contains(kw)
-                || p.getCategory().toLowerCase().contains(kw))
-            {
-                System.out.println("  " + p);
-                foundAny = true;
-            }
-        }
-        if (!foundAny) {
+        System.out.print("Enter partial product name, category or description: ");
+        String kw = sc.nextLine();
+        // The catalog's text index returns the matches already sorted by name.
+        List<Product> matches = catalog.search(kw);
+        if (matches.isEmpty()) {
             System.out.println("No matching products found.");
+            return;
+        }
+        for (Product p : matches) {
+            System.out.println("  " + p);
         }
     }
 
@@ -131,13 +139,35 @@ public class CustomerMenu {
         Product found = catalog.findByName(name);
         if (found == null) {
             System.out.println("No product with that name.");
+            suggestNames(name);
         } else {
             System.out.println("Found: " + found);
         }
     }
 
     /**
-     * Finds and displays a product by its secondary key (exact price match).
+     * Prints product names that complete what the customer typed. If nothing
+     * starts with the full input, the last characters are dropped one at a
+     * time, so a typo near the end still finds the intended product.
+     *
+     * @param typed the name the customer entered
+     */
+    private void suggestNames(String typed) {
+        for (int len = typed.length(); len > 0; len--) {
+            List<Product> completions = catalog.autocomplete(typed.substring(0, len), MAX_SUGGESTIONS);
+            if (!completions.isEmpty()) {
+                System.out.println("Did you mean:");
+                for (Product p : completions) {
+                    System.out.println("  " + p.getName());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds and displays every product with a given secondary key (exact price match).
+     * If none matches, the product with the closest price is suggested.
      */
     private void findBySecondaryKey() {
         System.out.print("Enter product price: ");
@@ -149,11 +179,75 @@ public class CustomerMenu {
             System.out.println("Invalid numeric input.");
             return;
         }
-        Product found = catalog.findByExactPrice(val);
-        if (found == null) {
+        List<Product> found = catalog.findAllByExactPrice(val);
+        if (found.isEmpty()) {
             System.out.println("No product with that price.");
-        } else {
-            System.out.println("Found: " + found);
+            Product nearest = catalog.findNearestByPrice(val);
+            if (nearest != null) {
+                System.out.println("Closest price: " + nearest);
+            }
+            return;
+        }
+        for (Product p : found) {
+            System.out.println("Found: " + p);
+        }
+    }
+
+    /**
+     * Shows the categories with their product counts, then pages through one
+     * category's products sorted by name.
+     */
+    private void browseCategory() {
+        List<String> categories = catalog.getCategories();
+        if (categories.isEmpty()) {
+            System.out.println("No products in catalog.");
+            return;
+        }
+        System.out.println("== Categories ==");
+        for (String c : categories) {
+            System.out.println("  " + c + " (" + catalog.getCategoryCount(c) + ")");
+        }
+        System.out.print("Enter category: ");
+        String category = sc.nextLine().trim();
+        int total = catalog.getCategoryCount(category);
+        if (total == 0) {
+            System.out.println("No products in that category.");
+            return;
+        }
+        int pages = (total + CATEGORY_PAGE_SIZE - 1) / CATEGORY_PAGE_SIZE;
+        for (int page = 0; page < pages; page++) {
+            System.out.println("== " + category + " (page " + (page + 1) + " of " + pages + ") ==");
+            for (Product p : catalog.getCategoryPageByName(category, page, CATEGORY_PAGE_SIZE)) {
+                System.out.println("  " + p);
+            }
+            if (page + 1 < pages) {
+                System.out.print("Press Enter for the next page, or q to stop: ");
+                if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the products that contain none of the allergens the customer enters.
+     */
+    private void listWithoutAllergens() {
+        System.out.print("Enter allergens to avoid (semicolon-separated): ");
+        List<String> avoid = new ArrayList<>();
+        for (String token : sc.nextLine().split("[,;]")) {
+            if (!token.trim().isEmpty()) {
+                avoid.add(token.trim());
+            }
+        }
+        List<Product> safe = catalog.findWithoutAllergens(avoid);
+        if (safe.isEmpty()) {
+            System.out.println("No products without those allergens.");
+            return;
+        }
+        System.out.println("== Products without " + String.join(", ", avoid) + " ==");
+        for (Product p : safe) {
+            System.out.println("  " + p);
         }
     }
 
@@ -161,13 +255,14 @@ public class CustomerMenu {
      * Lists all products in the catalog sorted by name.
      */
     private void listByName() {
-        List<Product> list = catalog.getAllByName();
-        if (list.isEmpty()) {
+        // Read one snapshot so the count and the listing agree, without locking out edits.
+        CatalogSnapshot snap = catalog.snapshot();
+        if (snap.getProductCount() == 0) {
             System.out.println("No products in catalog.");
             return;
         }
         System.out.println("== Products (by name) ==");
-        for (Product p : list) {
+        for (Product p : snap.productsByName()) {
             System.out.println("  " + p);
         }
     }
@@ -176,13 +271,13 @@ public class CustomerMenu {
      * Lists all products in the catalog sorted by price.
      */
     private void listByPrice() {
-        List<Product> list = catalog.getAllByPrice();
-        if (list.isEmpty()) {
+        CatalogSnapshot snap = catalog.snapshot();
+        if (snap.getProductCount() == 0) {
             System.out.println("No products in catalog.");
             return;
         }
         System.out.println("== Products (by price) ==");
-        for (Product p : list) {
+        for (Product p : snap.productsByPrice()) {
             System.out.println("  " + p);
         }
     }
@@ -198,6 +293,7 @@ public class CustomerMenu {
         Product found = catalog.findByName(name);
         if (found == null) {
             System.out.println("No product by that name.");
+            suggestNames(name);
             return;
         }
         System.out.print("Enter quantity: ");
@@ -236,6 +332,13 @@ public class CustomerMenu {
                 break;
         }
 
+        // Take the ordered quantity from the product's current stock (through
+        // the catalog, which checks and updates it under its lock).
+        if (!catalog.decrementStock(found, qty)) {
+            System.out.println("Not enough stock.");
+            return;
+        }
+
         // Construct a new order with the customer's email and chosen shipping speed.
         Order newOrder = new Order(currentCustomer.getEmail(), speed);
         // Create a new order item with product details and quantity.
@@ -245,9 +348,6 @@ public class CustomerMenu {
         // Add the item to the new order.
         newOrder.addItem(item);
 
-        // Decrement the product stock by the ordered quantity.
-        found.setStock(found.getStock() - qty);
-
         // Add the order to the order queue and the global orders list.
         orderQueue.insert(newOrder);
         allOrders.add(newOrder);
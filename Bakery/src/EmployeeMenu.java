@@ -1,36 +1,45 @@
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
 // The EmployeeMenu class provides a console interface for employees to manage orders.
 // It allows employees to search for orders, view and ship orders, and perform various related tasks.
 public class EmployeeMenu {
+    // Number of orders shown per screen when listing the queue.
+    private static final int ORDERS_PAGE_SIZE = 20;
+
     // Queue for managing orders based on their priority.
     protected PriorityQueue orderQueue;
     // List containing all orders in the system.
     protected List<Order> allOrders;
+    // Shipped orders indexed by ID and customer.
+    protected ShippedOrderIndex shippedOrders;
     // Hash table storing customer information.
-    protected HashTable<Customer> customers;
+    protected Table<Customer> customers;
     // Hash table storing employee information.
-    protected HashTable<Employee> employees;
+    protected Table<Employee> employees;
     // Scanner for reading user input.
     protected Scanner sc;
 
     /**
      * Constructor to initialize the EmployeeMenu.
      *
-     * @param orderQueue the priority queue of orders
-     * @param allOrders  the list of all orders
-     * @param customers  the hash table of customers
-     * @param employees  the hash table of employees
+     * @param orderQueue    the priority queue of orders
+     * @param allOrders     the list of all orders
+     * @param shippedOrders the index of shipped orders
+     * @param customers     the hash table of customers
+     * @param employees     the hash table of employees
      */
     public EmployeeMenu(PriorityQueue orderQueue,
                         List<Order> allOrders,
-                        HashTable<Customer> customers,
-                        HashTable<Employee> employees)
+                        ShippedOrderIndex shippedOrders,
+                        Table<Customer> customers,
+                        Table<Employee> employees)
     {
         this.orderQueue = orderQueue;
         this.allOrders = allOrders;
+        this.shippedOrders = shippedOrders;
         this.customers = customers;
         this.employees = employees;
         // Initialize the scanner for input reading.
@@ -90,14 +99,8 @@ public class EmployeeMenu {
         if (found != null) {
             System.out.println("Found unshipped: " + found);
         } else {
-            // If not found in the queue, check the allOrders list (possibly shipped orders).
-            Order shipped = null;
-            for (Order o : allOrders) {
-                if (o.getId().equals(orderId)) {
-                    shipped = o;
-                    break;
-                }
-            }
+            // If not found in the queue, check the shipped orders.
+            Order shipped = shippedOrders.searchById(orderId);
             if (shipped != null) {
                 System.out.println("Order is shipped or not in queue: " + shipped);
             } else {
@@ -146,20 +149,16 @@ public class EmployeeMenu {
                     System.out.println("  " + o);
                 }
             }
-            // Check for shipped orders in the global allOrders list.
-            boolean anyShipped = false;
-            for (Order o : allOrders) {
-                if (o.getCustomerId().equalsIgnoreCase(email) && o.isShipped()) {
-                    if (!anyShipped) {
-                        System.out.println("Shipped orders for " + email + ":");
-                        anyShipped = true;
-                    }
+            // Look up the customer's shipped orders in the shipped-order index.
+            List<Order> shipped = shippedOrders.searchByCustomerEmail(email);
+            if (shipped.isEmpty()) {
+                System.out.println("No shipped orders for " + email);
+            } else {
+                System.out.println("Shipped orders for " + email + ":");
+                for (Order o : shipped) {
                     System.out.println("  " + o);
                 }
             }
-            if (!anyShipped) {
-                System.out.println("No shipped orders for " + email);
-            }
         }
     }
 
@@ -199,17 +198,28 @@ public class EmployeeMenu {
     }
 
     /**
-     * Displays all unshipped orders sorted by priority (from high to low).
+     * Displays all unshipped orders sorted by priority (from high to low), one
+     * screen at a time. The queue's iterator produces each screen on demand,
+     * so only the orders actually shown are put in order.
      */
     protected void doViewAllOrdersSorted() {
         if (orderQueue.isEmpty()) {
             System.out.println("No unshipped orders.");
             return;
         }
-        List<Order> sorted = orderQueue.getAllOrdersSorted();
-        System.out.println("Unshipped Orders (high->low priority):");
-        for (Order o : sorted) {
-            System.out.println("  " + o);
+        int total = orderQueue.size();
+        System.out.println("Unshipped Orders (high->low priority), " + total + " in total:");
+        Iterator<Order> it = orderQueue.iterator();
+        int shown = 0;
+        while (it.hasNext()) {
+            System.out.println("  " + it.next());
+            shown++;
+            if (shown % ORDERS_PAGE_SIZE == 0 && it.hasNext()) {
+                System.out.print("Shown " + shown + " of " + total + ". Press Enter for more, or q to stop: ");
+                if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
+            }
         }
     }
 
@@ -224,12 +234,11 @@ public class EmployeeMenu {
         }
         // Remove the order with the highest priority from the queue.
         Order shippingNow = orderQueue.remove();
-        // Mark the order as shipped.
+        // Mark the order as shipped and index it.
         shippingNow.ship();
-        // Create a temporary customer key using the order's customer ID.
-        Customer key = new Customer("", "", shippingNow.getCustomerId(), "");
-        // Retrieve the actual customer from the hash table.
-        Customer actual = customers.get(key);
+        shippedOrders.add(shippingNow);
+        // Retrieve the actual customer from the hash table by the order's customer ID (email).
+        Customer actual = customers.getByKey(User.normalizeEmail(shippingNow.getCustomerId()));
         if (actual != null) {
             // Update the customer's records by moving the order from unshipped to shipped.
             actual.moveOrderToShipped(shippingNow);
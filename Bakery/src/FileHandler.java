@@ -1,4 +1,6 @@
 import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -141,7 +143,9 @@ public class FileHandler {
     /**
      * Reads a list of Orders from a CSV file.
      * Each line in the CSV is expected to be in the format:
-     *   orderId,customerEmail,shippingSpeed,isShipped
+     *   orderId,customerEmail,shippingSpeed,isShipped,orderDate
+     * Lines without the order date (written before it was saved) are still
+     * accepted; those orders are dated now.
      *
      * @param filename the file to read orders from
      * @return a list of Order objects read from the file
@@ -172,8 +176,21 @@ public class FileHandler {
                 Order.ShippingSpeed speed = Order.ShippingSpeed.valueOf(parts[2].trim());
                 boolean shipped = Boolean.parseBoolean(parts[3].trim());
 
-                // Create a new Order and mark it as shipped if indicated.
-                Order o = new Order(orderId, custEmail, speed);
+                // Create a new Order, keeping its original date (and so its
+                // priority) when the line has one, and mark it as shipped if indicated.
+                Order o;
+                if (parts.length >= 5) {
+                    LocalDateTime orderDate;
+                    try {
+                        orderDate = LocalDateTime.parse(parts[4].trim());
+                    } catch (DateTimeParseException ex) {
+                        System.out.println("Skipping malformed order line: " + line);
+                        continue;
+                    }
+                    o = new Order(orderId, custEmail, speed, orderDate);
+                } else {
+                    o = new Order(orderId, custEmail, speed);
+                }
                 if (shipped) {
                     o.markShipped();
                 }
@@ -186,7 +203,7 @@ public class FileHandler {
     /**
      * Writes orders to a CSV file.
      * Each order is written on a separate line in the format:
-     *   orderId,customerEmail,shippingSpeed,isShipped
+     *   orderId,customerEmail,shippingSpeed,isShipped,orderDate
      *
      * @param filename the file to write the orders to
      * @param orders   the list of orders to write
@@ -200,7 +217,8 @@ public class FileHandler {
                         o.getId(),
                         o.getCustomerId(),
                         o.getShippingSpeed().name(),
-                        String.valueOf(o.isShipped())
+                        String.valueOf(o.isShipped()),
+                        o.getOrderDate().toString()
                 );
                 bw.write(line);
                 bw.newLine();
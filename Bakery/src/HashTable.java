@@ -1,13 +1,36 @@
 import java.util.ArrayList;
+import java.util.function.Function;
 
 /**
  * A generic hash table implementation that uses an ArrayList of custom LinkedLists.
  * The type T must implement proper hashCode() and equals() methods.
+ *
+ * The table grows automatically once the load factor passes a configurable
+ * maximum. Growth is incremental: a larger bucket array is allocated and the
+ * old buckets are moved over a few at a time by subsequent add/get/delete
+ * calls, so no single operation has to rehash the whole table.
+ *
+ * An optional key extractor makes the table hash elements by key, so callers
+ * can look an element up with getByKey instead of building a probe element.
+ * Every lookup and delete walks its bucket exactly once, comparing keys.
  */
-public class HashTable<T> {
+public class HashTable<T> implements Table<T> {
 
-    private int numElements;                      
-    private ArrayList<LinkedList<T>> table;       
+    // Default maximum load factor before the table grows.
+    public static final double DEFAULT_MAX_LOAD_FACTOR = 0.75;
+    // Number of old buckets migrated by each operation while a resize is in progress.
+    private static final int REHASH_STEP = 4;
+
+    private int numElements;
+    private ArrayList<LinkedList<T>> table;
+    // Buckets still being migrated during an incremental resize, or null if none.
+    private ArrayList<LinkedList<T>> oldTable;
+    // Next old bucket to migrate.
+    private int rehashIndex;
+    // Load factor above which the table grows.
+    private final double maxLoadFactor;
+    // Returns the key an element is hashed and looked up by.
+    private final Function<? super T, ?> keyOf;
 
     /**
      * Constructs a HashTable with a specified number of buckets.
@@ -16,13 +39,46 @@ public class HashTable<T> {
      * @throws IllegalArgumentException if size <= 0
      */
     public HashTable(int size) {
+        this(size, DEFAULT_MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a HashTable with a specified number of buckets and
+     * a maximum load factor that triggers growth.
+     *
+     * @param size          initial number of buckets
+     * @param maxLoadFactor load factor above which the table grows
+     * @throws IllegalArgumentException if size <= 0 or maxLoadFactor <= 0
+     */
+    public HashTable(int size, double maxLoadFactor) {
+        this(size, maxLoadFactor, Function.identity());
+    }
+
+    /**
+     * Constructs a HashTable whose elements are hashed by the key the
+     * extractor returns. Two elements must be equal exactly when their keys are equal.
+     *
+     * @param size          initial number of buckets
+     * @param maxLoadFactor load factor above which the table grows
+     * @param keyOf         returns the (non-null) key of an element
+     * @throws IllegalArgumentException if size <= 0 or maxLoadFactor <= 0
+     * @throws NullPointerException if keyOf is null
+     */
+    public HashTable(int size, double maxLoadFactor, Function<? super T, ?> keyOf) {
+        if (keyOf == null) {
+            throw new NullPointerException("Key extractor cannot be null");
+        }
         if (size <= 0) {
             throw new IllegalArgumentException("HashTable size must be > 0");
         }
-        table = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            table.add(new LinkedList<>());
+        if (!(maxLoadFactor > 0)) {
+            throw new IllegalArgumentException("Max load factor must be > 0: " + maxLoadFactor);
         }
+        this.maxLoadFactor = maxLoadFactor;
+        this.keyOf = keyOf;
+        table = newBuckets(size);
+        oldTable = null;
+        rehashIndex = 0;
         numElements = 0;
     }
 
@@ -42,6 +98,20 @@ public class HashTable<T> {
         }
     }
 
+    /**
+     * Allocates a list of empty buckets.
+     *
+     * @param size number of buckets
+     * @return the new bucket list
+     */
+    private ArrayList<LinkedList<T>> newBuckets(int size) {
+        ArrayList<LinkedList<T>> buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        return buckets;
+    }
+
     /**
      * Computes the bucket index for a given object.
      *
@@ -49,13 +119,109 @@ public class HashTable<T> {
      * @return bucket index
      */
     private int hash(T obj) {
-        int code = obj.hashCode() & 0x7fffffff;   // force non-negative
-        return code % table.size();
+        return hashKey(keyOf.apply(obj), table.size());
+    }
+
+    /**
+     * Computes the bucket index for a key in a table of the given size.
+     *
+     * @param key     the key to hash
+     * @param buckets number of buckets
+     * @return bucket index
+     */
+    private int hashKey(Object key, int buckets) {
+        int code = key.hashCode() & 0x7fffffff;   // force non-negative
+        return code % buckets;
+    }
+
+    /* ======================================================
+       INCREMENTAL REHASHING
+       ====================================================== */
+
+    /**
+     * Returns whether an incremental resize is currently in progress.
+     */
+    public boolean isRehashing() {
+        return oldTable != null;
+    }
+
+    /**
+     * Returns the maximum load factor before the table grows.
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Prepares the table for an operation on the given element.
+     * While a resize is in progress, the old bucket the element hashes to is
+     * moved over first (so lookups only need to search the new table), and then
+     * a few more old buckets are migrated.
+     *
+     * @param key the key about to be accessed
+     */
+    private void rehashFor(Object key) {
+        if (oldTable == null) {
+            return;
+        }
+        migrateBucket(hashKey(key, oldTable.size()));
+        rehashStep();
+    }
+
+    /**
+     * Migrates the next few old buckets, finishing the resize once all are moved.
+     */
+    private void rehashStep() {
+        for (int i = 0; i < REHASH_STEP && oldTable != null; i++) {
+            migrateBucket(rehashIndex++);
+            if (rehashIndex >= oldTable.size()) {
+                oldTable = null;
+                rehashIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves every element of one old bucket into the new table.
+     *
+     * @param index the old bucket index
+     */
+    private void migrateBucket(int index) {
+        LinkedList<T> list = oldTable.get(index);
+        while (!list.isEmpty()) {
+            T elmt = list.removeFirst();
+            table.get(hash(elmt)).addLast(elmt);
+        }
+    }
+
+    /**
+     * Completes any resize in progress.
+     */
+    private void finishRehash() {
+        while (oldTable != null) {
+            rehashStep();
+        }
+    }
+
+    /**
+     * Starts growing the table if the load factor has passed its maximum.
+     * A new resize is only started once the previous one has finished.
+     */
+    private void growIfNeeded() {
+        if (getLoadFactor() <= maxLoadFactor) {
+            return;
+        }
+        finishRehash();
+        oldTable = table;
+        table = newBuckets(oldTable.size() * 2 + 1);
+        rehashIndex = 0;
+        rehashStep();
     }
 
     /**
      * Returns the total number of elements in the hash table.
      */
+    @Override
     public int getNumElements() {
         return numElements;
     }
@@ -68,6 +234,7 @@ public class HashTable<T> {
      * @throws IndexOutOfBoundsException if index is invalid
      */
     public int countBucket(int index) {
+        finishRehash();
         if (index < 0 || index >= table.size()) {
             throw new IndexOutOfBoundsException("Index out of bounds: " + index);
         }
@@ -81,24 +248,31 @@ public class HashTable<T> {
      * @return the matching element or null if not found
      * @throws NullPointerException if elmt is null
      */
+    @Override
     public T get(T elmt) {
         if (elmt == null) {
             throw new NullPointerException("get(): Key cannot be null");
         }
-        int bucket = hash(elmt);
-        LinkedList<T> list = table.get(bucket);
-        int indexInList = list.findIndex(elmt);
-        if (indexInList != -1) {
-            list.positionIterator();
-            while (!list.offEnd()) {
-                T current = list.getIterator();
-                if (current.equals(elmt)) {
-                    return current;
-                }
-                list.advanceIterator();
-            }
+        Object key = keyOf.apply(elmt);
+        rehashFor(key);
+        int bucket = hashKey(key, table.size());
+        return table.get(bucket).findByKey(key, keyOf);
+    }
+
+    /**
+     * Searches for the element with the given key.
+     *
+     * @param key the key to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    public T getByKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException("getByKey(): Key cannot be null");
         }
-        return null;
+        rehashFor(key);
+        return table.get(hashKey(key, table.size())).findByKey(key, keyOf);
     }
 
     /**
@@ -108,12 +282,15 @@ public class HashTable<T> {
      * @return bucket index if found, or -1 otherwise
      * @throws NullPointerException if elmt is null
      */
+    @Override
     public int find(T elmt) {
         if (elmt == null) {
             throw new NullPointerException("find(): Element cannot be null");
         }
-        int bucket = hash(elmt);
-        if (table.get(bucket).findIndex(elmt) != -1) {
+        Object key = keyOf.apply(elmt);
+        rehashFor(key);
+        int bucket = hashKey(key, table.size());
+        if (table.get(bucket).findByKey(key, keyOf) != null) {
             return bucket;
         }
         return -1;
@@ -126,6 +303,7 @@ public class HashTable<T> {
      * @return true if found, false otherwise
      * @throws NullPointerException if elmt is null
      */
+    @Override
     public boolean contains(T elmt) {
         return find(elmt) != -1;
     }
@@ -136,13 +314,17 @@ public class HashTable<T> {
      * @param elmt the element to add
      * @throws NullPointerException if elmt is null
      */
+    @Override
     public void add(T elmt) {
         if (elmt == null) {
             throw new NullPointerException("add(): Element cannot be null");
         }
-        int bucket = hash(elmt);
+        Object key = keyOf.apply(elmt);
+        rehashFor(key);
+        int bucket = hashKey(key, table.size());
         table.get(bucket).addLast(elmt);
         numElements++;
+        growIfNeeded();
     }
 
     /**
@@ -152,20 +334,17 @@ public class HashTable<T> {
      * @return true if removed, false if not found
      * @throws NullPointerException if elmt is null
      */
+    @Override
     public boolean delete(T elmt) {
         if (elmt == null) {
             throw new NullPointerException("delete(): Element cannot be null");
         }
-        int bucket = hash(elmt);
-        LinkedList<T> list = table.get(bucket);
-        list.positionIterator();
-        while (!list.offEnd()) {
-            if (list.getIterator().equals(elmt)) {
-                list.removeIterator();
-                numElements--;
-                return true;
-            }
-            list.advanceIterator();
+        Object key = keyOf.apply(elmt);
+        rehashFor(key);
+        int bucket = hashKey(key, table.size());
+        if (table.get(bucket).removeByKey(key, keyOf)) {
+            numElements--;
+            return true;
         }
         return false;
     }
@@ -173,10 +352,13 @@ public class HashTable<T> {
     /**
      * Clears the hash table.
      */
+    @Override
     public void clear() {
         for (int i = 0; i < table.size(); i++) {
             table.get(i).clear();
         }
+        oldTable = null;
+        rehashIndex = 0;
         numElements = 0;
     }
 
@@ -185,6 +367,7 @@ public class HashTable<T> {
      *
      * @return load factor (elements divided by number of buckets)
      */
+    @Override
     public double getLoadFactor() {
         return (double) numElements / table.size();
     }
@@ -197,6 +380,7 @@ public class HashTable<T> {
      * @throws IndexOutOfBoundsException if bucket index is invalid
      */
     public String bucketToString(int bucket) {
+        finishRehash();
         if (bucket < 0 || bucket >= table.size()) {
             throw new IndexOutOfBoundsException("bucketToString(): Invalid bucket index " + bucket);
         }
@@ -215,6 +399,7 @@ public class HashTable<T> {
      * Returns a string summarizing each bucket with its first element or "empty".
      */
     public String rowToString() {
+        finishRehash();
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < table.size(); i++) {
             sb.append("Bucket ").append(i).append(": ");
@@ -229,6 +414,7 @@ public class HashTable<T> {
 
     @Override
     public String toString() {
+        finishRehash();
         StringBuilder result = new StringBuilder();
         for (int i = 0; i < table.size(); i++) {
             LinkedList<T> list = table.get(i);
@@ -1,4 +1,5 @@
 import java.util.NoSuchElementException;
+import java.util.function.Function;
 
 // A generic doubly linked list implementation with an internal iterator.
 // The list supports basic operations such as adding, removing, and searching.
@@ -263,6 +264,53 @@ public class LinkedList<T> {
         return -1;
     }
 
+    /**
+     * Finds the first element whose key equals the given key.
+     * Walks the list once and does not move the internal iterator.
+     * @param key the key to find.
+     * @param keyOf returns the key of an element.
+     * @return the matching element, or null if not found.
+     */
+    public T findByKey(Object key, Function<? super T, ?> keyOf) {
+        for (Node current = first; current != null; current = current.next) {
+            if (keyOf.apply(current.data).equals(key)) {
+                return current.data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the first element whose key equals the given key.
+     * Walks the list once; the iterator is reset only if it pointed at the removed node.
+     * @param key the key to remove.
+     * @param keyOf returns the key of an element.
+     * @return true if an element was removed, false otherwise.
+     */
+    public boolean removeByKey(Object key, Function<? super T, ?> keyOf) {
+        for (Node current = first; current != null; current = current.next) {
+            if (keyOf.apply(current.data).equals(key)) {
+                // Unlink the node from its neighbours (or the list ends).
+                if (current.prev == null) {
+                    first = current.next;
+                } else {
+                    current.prev.next = current.next;
+                }
+                if (current.next == null) {
+                    last = current.prev;
+                } else {
+                    current.next.prev = current.prev;
+                }
+                if (iterator == current) {
+                    iterator = null;
+                }
+                length--;
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns a string representation of the list.
      * @return a space-separated list of element data.
@@ -8,12 +8,12 @@ import java.util.Scanner;
  */
 public class LoginHandler {
 
-    private HashTable<Customer> customers;  // HashTable of customers
-    private HashTable<Employee> employees;  // HashTable of employees
+    private Table<Customer> customers;  // Hash table of customers
+    private Table<Employee> employees;  // Hash table of employees
     private FileHandler fileHandler;
 
     /**
-     * Constructor that initializes the hash tables and the FileHandler.
+     * Constructor that initializes chained hash tables and the FileHandler.
      * You can pass in the desired table sizes or read from a config.
      *
      * @param fileHandler  a FileHandler to read/write user data from disk
@@ -21,9 +21,22 @@ public class LoginHandler {
      * @param empTableSize  initial bucket size for the employee hash table
      */
     public LoginHandler(FileHandler fileHandler, int custTableSize, int empTableSize) {
+        this(fileHandler, custTableSize, empTableSize, Table.Kind.CHAINED);
+    }
+
+    /**
+     * Constructor that initializes hash tables of the given kind and the FileHandler.
+     *
+     * @param fileHandler  a FileHandler to read/write user data from disk
+     * @param custTableSize initial bucket size for the customer hash table
+     * @param empTableSize  initial bucket size for the employee hash table
+     * @param tableKind     the hash table implementation to use
+     */
+    public LoginHandler(FileHandler fileHandler, int custTableSize, int empTableSize,
+                        Table.Kind tableKind) {
         this.fileHandler = fileHandler;
-        this.customers = new HashTable<>(custTableSize);
-        this.employees = new HashTable<>(empTableSize);
+        this.customers = Table.create(tableKind, custTableSize, User::getEmail);
+        this.employees = Table.create(tableKind, empTableSize, User::getEmail);
     }
 
     /**
@@ -79,16 +92,15 @@ public class LoginHandler {
      * @return A Customer or Employee object if valid, otherwise null
      */
     public User authenticate(String email, String password) {
+        String key = User.normalizeEmail(email);
         // 1) Check Customer
-        Customer cKey = new Customer("", "", email, password);
-        Customer cFound = customers.get(cKey);
+        Customer cFound = customers.getByKey(key);
         if (cFound != null && cFound.getPassword().equals(password)) {
             return cFound;
         }
 
         // 2) Check Employee
-        Employee eKey = new Employee("", "", email, password, false);
-        Employee eFound = employees.get(eKey);
+        Employee eFound = employees.getByKey(key);
         if (eFound != null && eFound.getPassword().equals(password)) {
             return eFound;
         }
@@ -165,11 +177,11 @@ public class LoginHandler {
 
     // =========== Accessors (optional) ===========
 
-    public HashTable<Customer> getCustomers() {
+    public Table<Customer> getCustomers() {
         return customers;
     }
 
-    public HashTable<Employee> getEmployees() {
+    public Table<Employee> getEmployees() {
         return employees;
     }
 }
@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -13,20 +14,22 @@ public class ManagerMenu extends EmployeeMenu {
     /**
      * Constructor to initialize the ManagerMenu.
      *
-     * @param orderQueue the priority queue for orders.
-     * @param allOrders  the list of all orders.
-     * @param customers  the hash table of customers.
-     * @param employees  the hash table of employees.
-     * @param catalog    the product catalog to manage products.
+     * @param orderQueue    the priority queue for orders.
+     * @param allOrders     the list of all orders.
+     * @param shippedOrders the index of shipped orders.
+     * @param customers     the hash table of customers.
+     * @param employees     the hash table of employees.
+     * @param catalog       the product catalog to manage products.
      */
     public ManagerMenu(PriorityQueue orderQueue,
                        List<Order> allOrders,
-                       HashTable<Customer> customers,
-                       HashTable<Employee> employees,
+                       ShippedOrderIndex shippedOrders,
+                       Table<Customer> customers,
+                       Table<Employee> employees,
                        ProductCatalog catalog)
     {
         // Call the parent constructor to initialize order and user management.
-        super(orderQueue, allOrders, customers, employees);
+        super(orderQueue, allOrders, shippedOrders, customers, employees);
         this.catalog = catalog;
         // Initialize a separate Scanner for manager inputs.
         this.managerScanner = new Scanner(System.in);
@@ -48,7 +51,8 @@ public class ManagerMenu extends EmployeeMenu {
             System.out.println("6) Add New Product");
             System.out.println("7) Update an Existing Product");
             System.out.println("8) Remove a Product");
-            System.out.println("9) Quit (back to main)");
+            System.out.println("9) Bulk Restock");
+            System.out.println("10) Quit (back to main)");
 
             // Read the manager's choice from input.
             String choice = managerScanner.nextLine().trim();
@@ -86,6 +90,10 @@ public class ManagerMenu extends EmployeeMenu {
                     doRemoveProduct();
                     break;
                 case "9":
+                    // Manager-specific option to restock several products at once.
+                    doBulkRestock();
+                    break;
+                case "10":
                     running = false;
                     System.out.println("Returning to main menu...");
                     break;
@@ -151,26 +159,71 @@ public class ManagerMenu extends EmployeeMenu {
 
         System.out.print("New price (blank = no change): ");
         String pStr = managerScanner.nextLine().trim();
-        double newPrice = existing.getPrice();
+        Double newPrice = null;
         if (!pStr.isEmpty()) {
             newPrice = Double.parseDouble(pStr);
         }
 
         System.out.print("New description (blank = no change): ");
         String dStr = managerScanner.nextLine().trim();
-        String newDesc = dStr.isEmpty() ? existing.getDescription() : dStr;
 
         System.out.print("Add to stock (blank = 0): ");
         String sStr = managerScanner.nextLine().trim();
-        int newStock = existing.getStock();
+        int addQty = 0;
         if (!sStr.isEmpty()) {
-            int addQty = Integer.parseInt(sStr);
-            newStock += addQty;
+            addQty = Integer.parseInt(sStr);
+        }
+
+        // Update the product in the catalog, changing only what was entered;
+        // the stock is added to the product's current stock, not to the copy above.
+        try {
+            catalog.updateProduct(ProductCatalog.ProductUpdate.adjust(existing, newPrice, dStr, addQty));
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Update failed: " + ex.getMessage());
+            return;
         }
+        System.out.println("Updated product: " + catalog.snapshot().find(existing));
+    }
 
-        // Update the product in the catalog.
-        catalog.updateProduct(existing, newPrice, newDesc, newStock);
-        System.out.println("Updated product: " + existing);
+    /**
+     * Prompts the manager for "name;quantity" lines and restocks every listed
+     * product in one batch once a blank line is entered.
+     */
+    private void doBulkRestock() {
+        System.out.println("Enter one \"product name;quantity to add\" per line (blank line to finish):");
+        List<ProductCatalog.ProductUpdate> updates = new ArrayList<>();
+        while (true) {
+            String line = managerScanner.nextLine().trim();
+            if (line.isEmpty()) {
+                break;
+            }
+            String[] parts = line.split(";");
+            if (parts.length != 2) {
+                System.out.println("Skipping malformed line: " + line);
+                continue;
+            }
+            Product existing = catalog.findByName(parts[0].trim());
+            if (existing == null) {
+                System.out.println("No product found with name: " + parts[0].trim());
+                continue;
+            }
+            try {
+                updates.add(ProductCatalog.ProductUpdate.restock(existing,
+                        Integer.parseInt(parts[1].trim())));
+            } catch (NumberFormatException ex) {
+                System.out.println("Skipping invalid quantity: " + parts[1].trim());
+            }
+        }
+        if (updates.isEmpty()) {
+            System.out.println("Nothing to restock.");
+            return;
+        }
+        try {
+            int changed = catalog.updateAll(updates);
+            System.out.println("Restocked " + changed + " product(s).");
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Restock cancelled: " + ex.getMessage());
+        }
     }
 
     /**
@@ -0,0 +1,246 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A compressed trie (radix tree) over product names, for autocomplete.
+ *
+ * Names are indexed in lowercase, so lookups ignore case. Each edge is labelled
+ * with a whole run of characters instead of a single one, so a chain of nodes
+ * with one child each is stored as a single edge. Every node other than the
+ * root either ends a name or has at least two children, which means a subtree
+ * never has more nodes than twice the names in it.
+ *
+ * complete() walks down the edges matching the prefix, then collects names
+ * depth-first with an explicit stack, visiting children in character order, so
+ * completions come back sorted and the walk stops after k products. The cost
+ * is proportional to the prefix length plus k (times the alphabet size for the
+ * child lookups), independent of the number of names in the trie.
+ */
+public class NameTrie {
+
+    /**
+     * A trie node: the edge label leading into it, its children sorted by the
+     * first character of their labels, and the products whose name ends here.
+     */
+    private static class Node {
+        String label;
+        Node[] children = new Node[0];
+        List<Product> products;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the index of the child whose label starts with c, or
+         * (-(insertion point) - 1) if there is none.
+         */
+        int indexOf(char c) {
+            int lo = 0;
+            int hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].label.charAt(0);
+                if (m < c) {
+                    lo = mid + 1;
+                } else if (m > c) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        void removeChild(int at) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, shrunk.length - at);
+            children = shrunk;
+        }
+    }
+
+    // The root has an empty label and never ends a name.
+    private final Node root;
+    // Number of products in the trie.
+    private int size;
+
+    /**
+     * Constructs an empty NameTrie.
+     */
+    public NameTrie() {
+        root = new Node("");
+        size = 0;
+    }
+
+    /**
+     * Returns the number of products in the trie.
+     *
+     * @return the product count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a product under its name.
+     *
+     * @param p the product to add
+     */
+    public void add(Product p) {
+        String key = p.getName().toLowerCase();
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            int i = node.indexOf(key.charAt(pos));
+            if (i < 0) {
+                // No edge starts with this character: hang the rest of the key off node.
+                Node leaf = new Node(key.substring(pos));
+                node.insertChild(-i - 1, leaf);
+                node = leaf;
+                pos = key.length();
+                break;
+            }
+            Node child = node.children[i];
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it.
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[] {child};
+                node.children[i] = split;
+                child = split;
+            }
+            node = child;
+            pos += common;
+        }
+        if (node.products == null) {
+            node.products = new ArrayList<>(1);
+        }
+        node.products.add(p);
+        size++;
+    }
+
+    /**
+     * Removes a product. Its name must not have changed since it was added.
+     *
+     * @param p the product to remove
+     * @return true if the product was in the trie
+     */
+    public boolean remove(Product p) {
+        String key = p.getName().toLowerCase();
+        // Record the path so emptied nodes can be pruned or merged on the way back.
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int pos = 0;
+        path.add(node);
+        while (pos < key.length()) {
+            int i = node.indexOf(key.charAt(pos));
+            if (i < 0 || !key.startsWith(node.children[i].label, pos)) {
+                return false;
+            }
+            node = node.children[i];
+            pos += node.label.length();
+            path.add(node);
+        }
+        if (node.products == null || !node.products.remove(p)) {
+            return false;
+        }
+        size--;
+        if (node.products.isEmpty()) {
+            node.products = null;
+        }
+        // Restore the invariant bottom-up: no name-less node with fewer than two children.
+        for (int d = path.size() - 1; d > 0; d--) {
+            Node current = path.get(d);
+            Node parent = path.get(d - 1);
+            if (current.products != null || current.children.length >= 2) {
+                break;
+            }
+            int at = parent.indexOf(current.label.charAt(0));
+            if (current.children.length == 0) {
+                parent.removeChild(at);
+            } else {
+                // Exactly one child: fold it into this edge.
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                parent.children[at] = only;
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns up to k products whose names start with a prefix (ignoring case),
+     * in alphabetical order of their names.
+     *
+     * @param prefix the prefix typed so far
+     * @param k      the maximum number of products to return
+     * @return the completions; empty if k <= 0
+     */
+    public List<Product> complete(String prefix, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        String key = prefix.toLowerCase();
+        List<Product> result = new ArrayList<>(Math.min(k, size));
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            int i = node.indexOf(key.charAt(pos));
+            if (i < 0) {
+                return result;
+            }
+            Node child = node.children[i];
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length() && pos + common < key.length()) {
+                // The prefix leaves this edge part way: no name starts with it.
+                return result;
+            }
+            node = child;
+            pos += common;
+        }
+        // Depth-first over the subtree; children are pushed in reverse so the
+        // smallest is visited first.
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty() && result.size() < k) {
+            Node current = stack.pop();
+            if (current.products != null) {
+                for (Product p : current.products) {
+                    if (result.size() == k) {
+                        break;
+                    }
+                    result.add(p);
+                }
+            }
+            for (int i = current.children.length - 1; i >= 0; i--) {
+                stack.push(current.children[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the length of the common prefix of a label and key.substring(pos).
+     */
+    private static int commonPrefix(String label, String key, int pos) {
+        int n = Math.min(label.length(), key.length() - pos);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(pos + i)) {
+            i++;
+        }
+        return i;
+    }
+}
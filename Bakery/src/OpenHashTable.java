@@ -0,0 +1,344 @@
+import java.util.function.Function;
+
+/**
+ * A generic hash table that uses open addressing with linear probing.
+ * Elements and their hash codes are stored side by side in flat arrays,
+ * so a lookup scans neighbouring slots instead of following list nodes.
+ * The type T must implement proper hashCode() and equals() methods.
+ *
+ * Deletions shift later entries of the same probe run backwards, so the table
+ * never accumulates tombstones. The capacity is always a power of two and
+ * doubles once the load factor passes its maximum.
+ *
+ * An optional key extractor makes the table hash elements by key, so callers
+ * can look an element up with getByKey instead of building a probe element.
+ */
+public class OpenHashTable<T> implements Table<T> {
+
+    // Default maximum load factor before the table grows.
+    public static final double DEFAULT_MAX_LOAD_FACTOR = 0.5;
+
+    private int numElements;
+    // Stored elements; null marks an empty slot.
+    private Object[] slots;
+    // Cached (spread) hash code of the element in each occupied slot.
+    private int[] hashes;
+    // Load factor above which the table grows.
+    private final double maxLoadFactor;
+    // Returns the key an element is hashed and looked up by.
+    private final Function<? super T, ?> keyOf;
+
+    /**
+     * Constructs an OpenHashTable with at least the given number of slots.
+     *
+     * @param size minimum number of slots (rounded up to a power of two)
+     * @throws IllegalArgumentException if size <= 0
+     */
+    public OpenHashTable(int size) {
+        this(size, DEFAULT_MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an OpenHashTable with at least the given number of slots and
+     * a maximum load factor that triggers growth.
+     *
+     * @param size          minimum number of slots (rounded up to a power of two)
+     * @param maxLoadFactor load factor above which the table grows, in (0, 1)
+     * @throws IllegalArgumentException if size <= 0 or maxLoadFactor is out of range
+     */
+    public OpenHashTable(int size, double maxLoadFactor) {
+        this(size, maxLoadFactor, Function.identity());
+    }
+
+    /**
+     * Constructs an OpenHashTable whose elements are hashed by the key the
+     * extractor returns. Two elements must be equal exactly when their keys are equal.
+     *
+     * @param size          minimum number of slots (rounded up to a power of two)
+     * @param maxLoadFactor load factor above which the table grows, in (0, 1)
+     * @param keyOf         returns the (non-null) key of an element
+     * @throws IllegalArgumentException if size <= 0 or maxLoadFactor is out of range
+     * @throws NullPointerException if keyOf is null
+     */
+    public OpenHashTable(int size, double maxLoadFactor, Function<? super T, ?> keyOf) {
+        if (keyOf == null) {
+            throw new NullPointerException("Key extractor cannot be null");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("OpenHashTable size must be > 0");
+        }
+        if (!(maxLoadFactor > 0 && maxLoadFactor < 1)) {
+            throw new IllegalArgumentException("Max load factor must be in (0, 1): " + maxLoadFactor);
+        }
+        this.maxLoadFactor = maxLoadFactor;
+        this.keyOf = keyOf;
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        slots = new Object[capacity];
+        hashes = new int[capacity];
+        numElements = 0;
+    }
+
+    /**
+     * Spreads the higher bits of a key's hash code into the lower bits,
+     * since only the lower bits choose the home slot.
+     *
+     * @param key the key to hash
+     * @return the spread hash code
+     */
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the spread hash code of an element's key.
+     *
+     * @param elmt the element to hash
+     * @return the spread hash code
+     */
+    private int hashOf(T elmt) {
+        return spread(keyOf.apply(elmt));
+    }
+
+    /**
+     * Returns the slot index of an element, or -1 if it is not stored.
+     *
+     * @param elmt the element to locate
+     * @param h    the spread hash code of elmt
+     * @return the slot index, or -1
+     */
+    private int indexOf(T elmt, int h) {
+        int mask = slots.length - 1;
+        int i = h & mask;
+        while (slots[i] != null) {
+            if (hashes[i] == h && slots[i].equals(elmt)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot index of the element with the given key, or -1 if none is stored.
+     *
+     * @param key the key to locate
+     * @param h   the spread hash code of key
+     * @return the slot index, or -1
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOfKey(Object key, int h) {
+        int mask = slots.length - 1;
+        int i = h & mask;
+        while (slots[i] != null) {
+            if (hashes[i] == h && keyOf.apply((T) slots[i]).equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the total number of elements in the hash table.
+     */
+    @Override
+    public int getNumElements() {
+        return numElements;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Searches for an element and returns it if found.
+     *
+     * @param elmt the element to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("get(): Key cannot be null");
+        }
+        int i = indexOf(elmt, hashOf(elmt));
+        return (i == -1) ? null : (T) slots[i];
+    }
+
+    /**
+     * Searches for the element with the given key.
+     *
+     * @param key the key to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getByKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException("getByKey(): Key cannot be null");
+        }
+        int i = indexOfKey(key, spread(key));
+        return (i == -1) ? null : (T) slots[i];
+    }
+
+    /**
+     * Finds the slot index where an element is stored.
+     *
+     * @param elmt the element to locate
+     * @return slot index if found, or -1 otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public int find(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("find(): Element cannot be null");
+        }
+        return indexOf(elmt, hashOf(elmt));
+    }
+
+    /**
+     * Checks whether the hash table contains the specified element.
+     *
+     * @param elmt the element to check
+     * @return true if found, false otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public boolean contains(T elmt) {
+        return find(elmt) != -1;
+    }
+
+    /**
+     * Adds an element to the hash table.
+     * Like HashTable, duplicates are not rejected.
+     *
+     * @param elmt the element to add
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public void add(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("add(): Element cannot be null");
+        }
+        if ((double) (numElements + 1) / slots.length > maxLoadFactor) {
+            resize(slots.length * 2);
+        }
+        insert(elmt, hashOf(elmt));
+        numElements++;
+    }
+
+    /**
+     * Places an element in the first free slot of its probe sequence.
+     *
+     * @param elmt the element to place
+     * @param h    the spread hash code of elmt
+     */
+    private void insert(Object elmt, int h) {
+        int mask = slots.length - 1;
+        int i = h & mask;
+        while (slots[i] != null) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = elmt;
+        hashes[i] = h;
+    }
+
+    /**
+     * Rehashes every element into arrays of the given capacity.
+     *
+     * @param capacity the new number of slots (a power of two)
+     */
+    private void resize(int capacity) {
+        Object[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new Object[capacity];
+        hashes = new int[capacity];
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != null) {
+                insert(oldSlots[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes an element from the hash table.
+     *
+     * @param elmt the element to remove
+     * @return true if removed, false if not found
+     * @throws NullPointerException if elmt is null
+     */
+    @Override
+    public boolean delete(T elmt) {
+        if (elmt == null) {
+            throw new NullPointerException("delete(): Element cannot be null");
+        }
+        int i = indexOf(elmt, hashOf(elmt));
+        if (i == -1) {
+            return false;
+        }
+        // Shift later members of the probe run back into the gap.
+        int mask = slots.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (slots[j] == null) {
+                break;
+            }
+            int home = hashes[j] & mask;
+            // Move slots[j] only if its home slot is not cyclically within (i, j].
+            boolean inRange = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!inRange) {
+                slots[i] = slots[j];
+                hashes[i] = hashes[j];
+                i = j;
+            }
+        }
+        slots[i] = null;
+        hashes[i] = 0;
+        numElements--;
+        return true;
+    }
+
+    /**
+     * Clears the hash table.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+            hashes[i] = 0;
+        }
+        numElements = 0;
+    }
+
+    /**
+     * Computes the load factor of the hash table.
+     *
+     * @return load factor (elements divided by number of slots)
+     */
+    @Override
+    public double getLoadFactor() {
+        return (double) numElements / slots.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Object slot : slots) {
+            if (slot != null) {
+                result.append(slot.toString()).append(" ");
+            }
+        }
+        return result.toString().trim();
+    }
+}
@@ -79,12 +79,13 @@ public class Order implements Comparable<Order> {
     private final String customerId;
     private final List<OrderItem> items;
     private final LocalDateTime orderDate;
-    private final ShippingSpeed shippingSpeed;
+    private ShippingSpeed shippingSpeed;
     private final String shippingAddress;
 
     private boolean shipped;
     private LocalDateTime shippedDate;
     private int priority;       // Calculated priority for order processing
+    int heapIndex = -1;         // Position in the PriorityQueue holding it, or -1
     private double subtotal;    // Sum of item subtotals
     private double shippingCost;
     private double total;       // subtotal + shippingCost
@@ -102,6 +103,18 @@ public class Order implements Comparable<Order> {
                  List<OrderItem> items,
                  ShippingSpeed shippingSpeed,
                  String shippingAddress)
+    {
+        this(customerId, items, shippingSpeed, shippingAddress, LocalDateTime.now());
+    }
+
+    /**
+     * Full constructor with an explicit order date, which the priority depends on.
+     */
+    private Order(String customerId,
+                  List<OrderItem> items,
+                  ShippingSpeed shippingSpeed,
+                  String shippingAddress,
+                  LocalDateTime orderDate)
     {
         if (customerId == null || customerId.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer ID cannot be empty");
@@ -109,6 +122,9 @@ public class Order implements Comparable<Order> {
         if (items == null) {
             throw new IllegalArgumentException("Order items cannot be null");
         }
+        if (orderDate == null) {
+            throw new IllegalArgumentException("Order date cannot be null");
+        }
         // Synchronized block to safely generate unique order ID.
         synchronized (Order.class) {
             this.id = "O" + (nextId++);
@@ -117,7 +133,7 @@ public class Order implements Comparable<Order> {
         // Create a defensive copy of the order items.
         this.items = new ArrayList<>(items);
         // Capture the order creation date/time.
-        this.orderDate = LocalDateTime.now();
+        this.orderDate = orderDate;
         // Use provided shipping speed or default to STANDARD.
         this.shippingSpeed = (shippingSpeed == null) ? ShippingSpeed.STANDARD : shippingSpeed;
         // Use provided shipping address or default to empty string.
@@ -163,6 +179,34 @@ public class Order implements Comparable<Order> {
     public Order(String orderId, String customerId, ShippingSpeed speed) {
         this(customerId, new ArrayList<>(), speed, "");
         this.id = orderId;  // Override auto-generated ID.
+        reserveId(orderId);
+    }
+
+    /**
+     * Constructor for restoring an order placed earlier, keeping its ID and its
+     * original order date (older orders of the same speed have higher priority).
+     *
+     * @param orderId    the order ID
+     * @param customerId the customer identifier
+     * @param speed      the shipping speed
+     * @param orderDate  the date/time the order was placed
+     */
+    public Order(String orderId, String customerId, ShippingSpeed speed, LocalDateTime orderDate) {
+        this(customerId, new ArrayList<>(), speed, "", orderDate);
+        this.id = orderId;  // Override auto-generated ID.
+        reserveId(orderId);
+    }
+
+    /**
+     * Makes sure generated IDs never collide with a custom ID of the generated
+     * form (e.g. one restored from file), by moving the counter past it.
+     *
+     * @param orderId the custom order ID
+     */
+    private static synchronized void reserveId(String orderId) {
+        if (orderId != null && orderId.matches("O\\d{1,9}")) {
+            nextId = Math.max(nextId, Integer.parseInt(orderId.substring(1)) + 1);
+        }
     }
 
     /**
@@ -207,6 +251,23 @@ public class Order implements Comparable<Order> {
         computePriority();
     }
 
+    /**
+     * Changes the shipping speed (e.g. an upgrade from STANDARD to RUSH), then
+     * recalculates the shipping cost, totals and priority. An order waiting in a
+     * PriorityQueue must be changed through PriorityQueue.changePriority, so the
+     * heap is reordered around its new priority.
+     *
+     * @param speed the new shipping speed (must not be null)
+     */
+    void setShippingSpeed(ShippingSpeed speed) {
+        if (speed == null) {
+            throw new IllegalArgumentException("Shipping speed cannot be null");
+        }
+        this.shippingSpeed = speed;
+        recalcTotals();
+        computePriority();
+    }
+
     // Accessor methods
 
     public String getId() { return id; }
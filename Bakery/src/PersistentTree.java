@@ -0,0 +1,410 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable (persistent) AVL tree.
+ *
+ * Nodes are never modified once built. insert() and remove() copy only the
+ * nodes on the path from the root to the change (O(log n) of them, including
+ * rotations) and share every other subtree with the old tree, then return the
+ * new tree. The old tree stays valid and unchanged, so a reader holding it sees
+ * a consistent snapshot for as long as it likes, with no locks, while a writer
+ * builds newer versions.
+ *
+ * The ordering must be consistent with equals: two elements that compare equal
+ * are treated as the same element, and inserting one replaces the other.
+ *
+ * @param <T> The type of data stored in the tree.
+ */
+public final class PersistentTree<T> implements Iterable<T> {
+
+    /**
+     * An immutable node; height and size are computed once when it is built.
+     */
+    private static final class Node<T> {
+        final T data;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;
+
+        Node(T data, Node<T> left, Node<T> right) {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    // Root of this version; null for an empty tree.
+    private final Node<T> root;
+    // Ordering of the elements.
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Constructs an empty tree ordered by a Comparator.
+     *
+     * @param comparator the ordering of the elements
+     */
+    public PersistentTree(Comparator<? super T> comparator) {
+        this(null, comparator);
+    }
+
+    private PersistentTree(Node<T> root, Comparator<? super T> comparator) {
+        this.root = root;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the element count
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Checks if the tree is empty.
+     *
+     * @return true if the tree has no elements
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns a tree that also holds an element, replacing any equal one.
+     *
+     * @param data the element to add
+     * @return the new tree; this tree is unchanged
+     */
+    public PersistentTree<T> insert(T data) {
+        return new PersistentTree<>(insert(root, data), comparator);
+    }
+
+    /**
+     * Returns a tree without an element.
+     *
+     * @param data the element to remove
+     * @return the new tree, or this tree if the element was not in it
+     */
+    public PersistentTree<T> remove(T data) {
+        Node<T> newRoot = remove(root, data);
+        return (newRoot == root) ? this : new PersistentTree<>(newRoot, comparator);
+    }
+
+    /**
+     * Returns the element equal to a key.
+     *
+     * @param key the element to look for
+     * @return the stored element, or null if there is none
+     */
+    public T get(T key) {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.data);
+            if (cmp == 0) {
+                return node.data;
+            }
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the smallest element at or above a probe key.
+     *
+     * @param probe compares the sought key against an element
+     * @return the element, or null if every element is below the probe
+     */
+    public T ceilingKey(Comparable<? super T> probe) {
+        T best = null;
+        Node<T> node = root;
+        while (node != null) {
+            if (probe.compareTo(node.data) <= 0) {
+                best = node.data;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the elements between two probe keys (inclusive), in order.
+     * Only the elements in the range are visited.
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return the elements in the range
+     */
+    public List<T> betweenKeys(Comparable<? super T> lo, Comparable<? super T> hi) {
+        List<T> result = new ArrayList<>();
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Node<T> node = root;
+        while (node != null) {
+            if (lo.compareTo(node.data) <= 0) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node<T> current = stack.pop();
+            if (hi.compareTo(current.data) < 0) {
+                break;
+            }
+            result.add(current.data);
+            for (node = current.right; node != null; node = node.left) {
+                stack.push(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of elements strictly less than a probe key.
+     *
+     * @param probe compares the sought key against an element
+     * @return the count of smaller elements
+     */
+    public int rankKeys(Comparable<? super T> probe) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (probe.compareTo(node.data) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Counts the elements between two probe keys (inclusive) in time
+     * proportional to the height, using the stored subtree sizes.
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return the number of elements in the range
+     */
+    public int countBetweenKeys(Comparable<? super T> lo, Comparable<? super T> hi) {
+        // Elements <= hi, minus elements < lo.
+        int atMostHi = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (hi.compareTo(node.data) >= 0) {
+                atMostHi += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return Math.max(0, atMostHi - rankKeys(lo));
+    }
+
+    /**
+     * Returns a lazy iterator over the elements between two probe keys
+     * (inclusive), in order. Nothing past the current element is visited
+     * until next() is called, so a caller can stop early.
+     *
+     * @param lo a probe for the lower bound
+     * @param hi a probe for the upper bound
+     * @return an iterator over the range
+     */
+    public Iterator<T> rangeIterator(Comparable<? super T> lo, Comparable<? super T> hi) {
+        return new Iterator<T>() {
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                // Seed the stack with the path to the first element >= lo.
+                Node<T> node = root;
+                while (node != null) {
+                    if (lo.compareTo(node.data) <= 0) {
+                        stack.push(node);
+                        node = node.left;
+                    } else {
+                        node = node.right;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty() && hi.compareTo(stack.peek().data) >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> current = stack.pop();
+                for (Node<T> node = current.right; node != null; node = node.left) {
+                    stack.push(node);
+                }
+                return current.data;
+            }
+        };
+    }
+
+    /**
+     * Returns all elements in order.
+     *
+     * @return a new list of the elements
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(size());
+        for (T data : this) {
+            result.add(data);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an in-order iterator. The tree cannot change, so the iterator
+     * never fails, whatever happens to newer versions.
+     *
+     * @return an iterator over the elements in ascending order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<T> node) {
+                for (; node != null; node = node.left) {
+                    stack.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = stack.pop();
+                pushLeft(node.right);
+                return node.data;
+            }
+        };
+    }
+
+    /**
+     * Inserts below a node, copying the nodes on the path.
+     */
+    private Node<T> insert(Node<T> node, T data) {
+        if (node == null) {
+            return new Node<>(data, null, null);
+        }
+        int cmp = comparator.compare(data, node.data);
+        if (cmp < 0) {
+            return balance(node.data, insert(node.left, data), node.right);
+        }
+        if (cmp > 0) {
+            return balance(node.data, node.left, insert(node.right, data));
+        }
+        return new Node<>(data, node.left, node.right);
+    }
+
+    /**
+     * Removes below a node, copying the nodes on the path.
+     * Returns the same node if the element was not found.
+     */
+    private Node<T> remove(Node<T> node, T data) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(data, node.data);
+        if (cmp < 0) {
+            Node<T> left = remove(node.left, data);
+            return (left == node.left) ? node : balance(node.data, left, node.right);
+        }
+        if (cmp > 0) {
+            Node<T> right = remove(node.right, data);
+            return (right == node.right) ? node : balance(node.data, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Two children: the in-order successor takes this node's place.
+        Node<T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.data, node.left, removeMin(node.right));
+    }
+
+    /**
+     * Removes the smallest element below a node, copying the nodes on the path.
+     */
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.data, removeMin(node.left), node.right);
+    }
+
+    /**
+     * Builds a node from its parts, rotating if the subtrees' heights differ by
+     * more than one (at most one single or double rotation is needed).
+     */
+    private static <T> Node<T> balance(T data, Node<T> left, Node<T> right) {
+        int hl = height(left);
+        int hr = height(right);
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                // Left-left: single right rotation.
+                return new Node<>(left.data, left.left, new Node<>(data, left.right, right));
+            }
+            // Left-right: double rotation lifting left.right.
+            Node<T> pivot = left.right;
+            return new Node<>(pivot.data,
+                              new Node<>(left.data, left.left, pivot.left),
+                              new Node<>(data, pivot.right, right));
+        }
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                // Right-right: single left rotation.
+                return new Node<>(right.data, new Node<>(data, left, right.left), right.right);
+            }
+            // Right-left: double rotation lifting right.left.
+            Node<T> pivot = right.left;
+            return new Node<>(pivot.data,
+                              new Node<>(data, left, pivot.left),
+                              new Node<>(right.data, pivot.right, right.right));
+        }
+        return new Node<>(data, left, right);
+    }
+
+    private static int height(Node<?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+}
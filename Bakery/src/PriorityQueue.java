@@ -1,24 +1,92 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
-// A priority queue implementation using a binary heap stored in an ArrayList.
-// The heap uses 1-based indexing for easier parent/child calculations.
-public class PriorityQueue {
+// A priority queue implementation using a d-ary heap (4-ary unless configured).
+// The heap uses 0-based indexing: the children of node i are d*i+1 .. d*i+d and
+// its parent is (i-1)/d. A wider node means a shallower heap, so an insert moves
+// through fewer levels, and the d children compared by a remove sit side by side.
+// Each order's int priority is kept in a parallel array, so sifts compare plain
+// ints from one contiguous array instead of calling Order.compareTo through every
+// order object. Sifts are iterative and move a "hole" rather than swapping, so each
+// level costs one array write instead of three.
+// It is an indexed heap: every queued order records its own heap position (kept
+// up to date whenever it moves) and a map finds orders by ID, so an order can be
+// found in O(1) and cancelled or re-prioritized in O(log n). A second map holds
+// each customer's pending orders, so one customer's orders are found without
+// scanning the heap. An order can be in at most one PriorityQueue at a time.
+// Bulk loads (insertAll, or the constructor taking a collection) append the orders
+// and rebuild the heap bottom-up with Floyd's method, which is O(n) rather than the
+// O(n log n) of inserting one at a time.
+// Iterating the queue yields orders in priority order without copying or changing
+// the heap: a small candidate heap of positions holds the frontier of the walk, so
+// the first k orders cost O(k log k), whatever the size of the queue.
+public class PriorityQueue implements Iterable<Order> {
 
-    // The heap array where index 0 is unused (dummy), so elements start at index 1.
-    private ArrayList<Order> heap;
+    // Number of children per node when none is given.
+    public static final int DEFAULT_ARITY = 4;
+    // Initial capacity of the heap arrays.
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Number of children per node.
+    private final int arity;
+    // The heap of orders; slots at index >= size are null.
+    private Order[] orders;
+    // priorities[i] is orders[i].getPriority(), cached for the sifts.
+    private int[] priorities;
     // The current number of orders in the heap.
     private int size;
+    // Every queued order, keyed by order ID.
+    private Map<String, Order> byId;
+    // Pending orders of each customer in the order they were queued, keyed by normalized email.
+    private Map<String, Set<Order>> pendingByCustomer;
+    // Number of changes to the heap, so iterators can fail fast.
+    private int modCount;
 
     /**
-     * Constructs an empty PriorityQueue.
+     * Constructs an empty 4-ary PriorityQueue.
      */
     public PriorityQueue() {
-        this.heap = new ArrayList<>();
-        // Add a dummy element at index 0 to simplify index calculations.
-        heap.add(null);
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs an empty PriorityQueue with the given number of children per node.
+     *
+     * @param arity the number of children per node (at least 2).
+     * @throws IllegalArgumentException if arity < 2.
+     */
+    public PriorityQueue(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.orders = new Order[INITIAL_CAPACITY];
+        this.priorities = new int[INITIAL_CAPACITY];
         this.size = 0;
+        this.byId = new HashMap<>();
+        this.pendingByCustomer = new HashMap<>();
+    }
+
+    /**
+     * Constructs a 4-ary PriorityQueue holding the given orders, built in O(n)
+     * (e.g. to restore the backlog of unshipped orders at startup).
+     *
+     * @param orders the orders to queue.
+     * @throws IllegalArgumentException if two orders have the same ID.
+     */
+    public PriorityQueue(Collection<Order> orders) {
+        this(DEFAULT_ARITY);
+        insertAll(orders);
     }
 
     /**
@@ -30,18 +98,90 @@ public class PriorityQueue {
         return (size == 0);
     }
 
+    /**
+     * Returns the number of orders in the queue.
+     *
+     * @return the order count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of children per node.
+     *
+     * @return the arity.
+     */
+    public int getArity() {
+        return arity;
+    }
+
     /**
      * Inserts an order into the priority queue.
-     * After adding, the heap property is restored by bubbling up.
+     * After adding, the heap property is restored by sifting the order up.
      *
      * @param order the Order to insert.
+     * @throws IllegalArgumentException if an order with the same ID is already queued.
      */
     public void insert(Order order) {
-        size++;
-        // Add the new order at the end of the heap.
-        heap.add(order);
-        // Restore heap property by bubbling up the new order.
-        bubbleUp(size);
+        if (byId.putIfAbsent(order.getId(), order) != null) {
+            throw new IllegalArgumentException("Order already queued: " + order.getId());
+        }
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+        pendingByCustomer.computeIfAbsent(User.normalizeEmail(order.getCustomerId()),
+                                          k -> new LinkedHashSet<>()).add(order);
+        modCount++;
+        // Start from a hole at the end of the heap.
+        siftUp(size++, order, order.getPriority());
+    }
+
+    /**
+     * Inserts a batch of orders. When the batch is at least as large as the
+     * queue already is, the orders are appended and the whole heap is rebuilt
+     * bottom-up in O(n); a smaller batch is inserted one order at a time.
+     * Either way the queue is unchanged if the batch is rejected.
+     *
+     * @param batch the Orders to insert.
+     * @throws IllegalArgumentException if an order's ID is already queued or
+     *         appears twice in the batch.
+     */
+    public void insertAll(Collection<Order> batch) {
+        Set<String> ids = new HashSet<>();
+        for (Order order : batch) {
+            if (byId.containsKey(order.getId()) || !ids.add(order.getId())) {
+                throw new IllegalArgumentException("Order already queued: " + order.getId());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() < size) {
+            for (Order order : batch) {
+                insert(order);
+            }
+            return;
+        }
+        modCount++;
+        if (size + batch.size() > orders.length) {
+            int capacity = Math.max(size + batch.size(), orders.length * 2);
+            orders = Arrays.copyOf(orders, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+        }
+        for (Order order : batch) {
+            byId.put(order.getId(), order);
+            pendingByCustomer.computeIfAbsent(User.normalizeEmail(order.getCustomerId()),
+                                              k -> new LinkedHashSet<>()).add(order);
+            place(size++, order, order.getPriority());
+        }
+        // Floyd's heapify: sift down every internal node, last parent first. Most
+        // nodes are near the leaves and move at most a level or two, so the
+        // total work is linear.
+        for (int i = (size - 2) / arity; i >= 0; i--) {
+            siftDown(i, orders[i], priorities[i]);
+        }
     }
 
     /**
@@ -54,18 +194,44 @@ public class PriorityQueue {
         if (isEmpty()) {
             throw new NoSuchElementException("PriorityQueue is empty");
         }
-        // The highest priority order is at index 1.
-        Order top = heap.get(1);
-        // Move the last element to the top.
-        heap.set(1, heap.get(size));
-        // Remove the last element since it has been moved.
-        heap.remove(size);
-        size--;
-        // Restore the heap property if the queue is not empty.
-        if (size > 0) {
-            heapify(1);
+        return removeAt(0);
+    }
+
+    /**
+     * Removes an order by its ID, e.g. when it is cancelled.
+     *
+     * @param orderId the ID of the order to remove.
+     * @return the removed Order, or null if no queued order has that ID.
+     */
+    public Order remove(String orderId) {
+        Order order = byId.get(orderId);
+        return (order == null) ? null : removeAt(order.heapIndex);
+    }
+
+    /**
+     * Changes the shipping speed of a queued order (e.g. an upgrade from
+     * STANDARD to RUSH) and moves it to the position its new priority calls for.
+     *
+     * @param orderId  the ID of the order to change.
+     * @param newSpeed the new shipping speed.
+     * @return the changed Order, or null if no queued order has that ID.
+     */
+    public Order changePriority(String orderId, Order.ShippingSpeed newSpeed) {
+        Order order = byId.get(orderId);
+        if (order == null) {
+            return null;
         }
-        return top;
+        int idx = order.heapIndex;
+        int oldPriority = priorities[idx];
+        order.setShippingSpeed(newSpeed);
+        modCount++;
+        int newPriority = order.getPriority();
+        if (newPriority > oldPriority) {
+            siftUp(idx, order, newPriority);
+        } else {
+            siftDown(idx, order, newPriority);
+        }
+        return order;
     }
 
     /**
@@ -78,104 +244,259 @@ public class PriorityQueue {
         if (isEmpty()) {
             throw new NoSuchElementException("PriorityQueue is empty");
         }
-        return heap.get(1);
+        return orders[0];
+    }
+
+    /**
+     * Returns an iterator over the queued orders from highest to lowest
+     * priority. The queue is neither copied nor changed: each call to next()
+     * costs O(d log k) for the k-th order, so showing the first screen of a
+     * large backlog only touches that screen's orders and their children.
+     * The iterator fails fast if the queue changes while it is in use.
+     *
+     * @return an iterator in priority order.
+     */
+    @Override
+    public Iterator<Order> iterator() {
+        return new PriorityIterator();
+    }
+
+    /**
+     * Returns up to k orders with the highest priority, highest first.
+     *
+     * @param k the maximum number of orders to return.
+     * @return a new list of at most k orders; empty if k <= 0.
+     */
+    public List<Order> getTopOrders(int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        List<Order> top = new ArrayList<>(Math.min(k, size));
+        Iterator<Order> it = iterator();
+        while (top.size() < k && it.hasNext()) {
+            top.add(it.next());
+        }
+        return top;
     }
 
     /**
      * Returns a list of all orders in descending priority order.
+     * To show only the first few, iterate the queue or use getTopOrders instead.
      *
      * @return a sorted List of Orders with highest priority first.
      */
     public List<Order> getAllOrdersSorted() {
-        // Create a copy of the heap (excluding the dummy element).
-        ArrayList<Order> copy = new ArrayList<>(heap.subList(1, size + 1));
+        // Create a copy of the heap.
+        ArrayList<Order> copy = new ArrayList<>(Arrays.asList(orders).subList(0, size));
         // Sort the list using the Order.compareTo method so that highest priority comes first.
         copy.sort((o1, o2) -> o1.compareTo(o2));
         return copy;
     }
 
     /**
-     * Searches for an unshipped order by its ID.
+     * Searches for an unshipped order by its ID in O(1).
      *
      * @param orderId the ID of the order to search for.
      * @return the Order if found, or null if not found.
      */
     public Order searchById(String orderId) {
-        for (int i = 1; i <= size; i++) {
-            if (heap.get(i).getId().equals(orderId)) {
-                return heap.get(i);
-            }
-        }
-        return null;
+        return byId.get(orderId);
     }
 
     /**
-     * Searches for unshipped orders by customer email.
+     * Searches for unshipped orders by customer email, in the order they were queued.
+     * Runs in time proportional to that customer's pending orders.
      *
      * @param email the customer's email.
-     * @return a list of Orders that match the customer's email.
+     * @return a new list of the Orders that match the customer's email.
      */
     public List<Order> searchByCustomerEmail(String email) {
-        List<Order> results = new ArrayList<>();
-        for (int i = 1; i <= size; i++) {
-            if (heap.get(i).getCustomerId().equalsIgnoreCase(email)) {
-                results.add(heap.get(i));
+        Set<Order> pending = pendingByCustomer.get(User.normalizeEmail(email));
+        return (pending == null) ? new ArrayList<>() : new ArrayList<>(pending);
+    }
+
+    /**
+     * Removes the order at a heap position: the last order fills the gap and
+     * is sifted up or down to restore the heap property.
+     *
+     * @param idx the position to remove.
+     * @return the removed Order.
+     */
+    private Order removeAt(int idx) {
+        Order removed = orders[idx];
+        modCount++;
+        byId.remove(removed.getId());
+        removed.heapIndex = -1;
+        String customer = User.normalizeEmail(removed.getCustomerId());
+        Set<Order> pending = pendingByCustomer.get(customer);
+        pending.remove(removed);
+        if (pending.isEmpty()) {
+            pendingByCustomer.remove(customer);
+        }
+        // Take the last order out and drop its slot.
+        size--;
+        Order last = orders[size];
+        int lastPriority = priorities[size];
+        orders[size] = null;
+        if (idx < size) {
+            // Refill the gap with the last order, moving it whichever way it belongs.
+            if (idx > 0 && lastPriority > priorities[(idx - 1) / arity]) {
+                siftUp(idx, last, lastPriority);
+            } else {
+                siftDown(idx, last, lastPriority);
             }
         }
-        return results;
+        return removed;
     }
 
     /**
-     * Restores the heap property by bubbling up the element at the given index.
+     * Moves a hole up from idx while its parent has lower priority than the
+     * order being placed, then puts the order in the hole.
      *
-     * @param idx the index of the element to bubble up.
+     * @param idx      the position of the hole.
+     * @param order    the order to place.
+     * @param priority the order's priority.
      */
-    private void bubbleUp(int idx) {
-        while (idx > 1) {
-            int parent = idx / 2;
-            // If current order has higher priority than its parent, swap them.
-            if (heap.get(idx).compareTo(heap.get(parent)) > 0) {
-                swap(idx, parent);
-                idx = parent;
-            } else {
+    private void siftUp(int idx, Order order, int priority) {
+        while (idx > 0) {
+            int parent = (idx - 1) / arity;
+            if (priorities[parent] >= priority) {
                 break;
             }
+            // Pull the parent down into the hole.
+            place(idx, orders[parent], priorities[parent]);
+            idx = parent;
         }
+        place(idx, order, priority);
     }
 
     /**
-     * Restores the heap property by moving the element at the given index down.
+     * Moves a hole down from idx while its highest-priority child outranks the
+     * order being placed, then puts the order in the hole.
      *
-     * @param idx the index of the element to heapify.
+     * @param idx      the position of the hole.
+     * @param order    the order to place.
+     * @param priority the order's priority.
      */
-    private void heapify(int idx) {
-        int left = 2 * idx;
-        int right = 2 * idx + 1;
-        int largest = idx;
-        // Check if the left child has higher priority.
-        if (left <= size && heap.get(left).compareTo(heap.get(largest)) > 0) {
-            largest = left;
-        }
-        // Check if the right child has higher priority.
-        if (right <= size && heap.get(right).compareTo(heap.get(largest)) > 0) {
-            largest = right;
-        }
-        // If a child has higher priority, swap and continue heapifying.
-        if (largest != idx) {
-            swap(idx, largest);
-            heapify(largest);
+    private void siftDown(int idx, Order order, int priority) {
+        while (true) {
+            int first = idx * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            // Find the highest-priority child; the children are adjacent in the array.
+            int end = Math.min(first + arity, size);
+            int best = first;
+            for (int c = first + 1; c < end; c++) {
+                if (priorities[c] > priorities[best]) {
+                    best = c;
+                }
+            }
+            if (priorities[best] <= priority) {
+                break;
+            }
+            // Pull the child up into the hole.
+            place(idx, orders[best], priorities[best]);
+            idx = best;
         }
+        place(idx, order, priority);
     }
 
     /**
-     * Swaps two elements in the heap given their indices.
+     * Stores an order at a heap position, keeping the order's recorded position in step.
      *
-     * @param i index of the first element.
-     * @param j index of the second element.
+     * @param idx      the position.
+     * @param order    the order.
+     * @param priority the order's priority.
+     */
+    private void place(int idx, Order order, int priority) {
+        orders[idx] = order;
+        priorities[idx] = priority;
+        order.heapIndex = idx;
+    }
+
+    /**
+     * Walks the heap in priority order. The next order is always the best of
+     * the candidates: the children of every order returned so far that have not
+     * been returned themselves. The candidates are kept in their own binary
+     * max-heap of positions, keyed by the shared priorities array.
      */
-    private void swap(int i, int j) {
-        Order temp = heap.get(i);
-        heap.set(i, heap.get(j));
-        heap.set(j, temp);
+    private class PriorityIterator implements Iterator<Order> {
+        // The modification count the iterator was created with.
+        private final int expectedModCount = modCount;
+        // Binary max-heap of candidate positions in the order heap.
+        private int[] candidates = new int[Math.max(1, Math.min(size, INITIAL_CAPACITY))];
+        // Number of candidates.
+        private int count;
+
+        PriorityIterator() {
+            if (size > 0) {
+                candidates[count++] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return count > 0;
+        }
+
+        @Override
+        public Order next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (count == 0) {
+                throw new NoSuchElementException();
+            }
+            int best = candidates[0];
+            // Pop the best candidate, then offer its children.
+            count--;
+            if (count > 0) {
+                siftDownCandidate(candidates[count]);
+            }
+            int first = best * arity + 1;
+            int end = Math.min(first + arity, size);
+            for (int c = first; c < end; c++) {
+                pushCandidate(c);
+            }
+            return orders[best];
+        }
+
+        private void pushCandidate(int pos) {
+            if (count == candidates.length) {
+                candidates = Arrays.copyOf(candidates, count * 2);
+            }
+            int idx = count++;
+            int priority = priorities[pos];
+            while (idx > 0) {
+                int parent = (idx - 1) / 2;
+                if (priorities[candidates[parent]] >= priority) {
+                    break;
+                }
+                candidates[idx] = candidates[parent];
+                idx = parent;
+            }
+            candidates[idx] = pos;
+        }
+
+        private void siftDownCandidate(int pos) {
+            int priority = priorities[pos];
+            int idx = 0;
+            while (true) {
+                int child = 2 * idx + 1;
+                if (child >= count) {
+                    break;
+                }
+                if (child + 1 < count && priorities[candidates[child + 1]] > priorities[candidates[child]]) {
+                    child++;
+                }
+                if (priorities[candidates[child]] <= priority) {
+                    break;
+                }
+                candidates[idx] = candidates[child];
+                idx = child;
+            }
+            candidates[idx] = pos;
+        }
     }
 }
@@ -1,14 +1,31 @@
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.Set;
 
 // The Product class represents an item in the catalog with details such as name, category, price, stock, etc.
 // It implements Comparable to allow sorting by name (primary key) and provides methods for updating product details.
+// Price and update time are keys of ProductCatalog's indexes, so a product in a catalog must only be changed through
+// ProductCatalog.updateProduct or updateAll, which re-position it in every index. Nothing enforces this: the setters
+// are package-private, but every class here is in the default package and can still call them.
 public class Product implements Comparable<Product> {
 
     // Static counter to generate unique product IDs.
     private static int nextId = 1000;
 
+    // Orderings for catalog indexes. Each breaks ties by id, so two
+    // distinct products never compare equal. Ids compare as strings, not
+    // by their number: "P10000" sorts before "P9999".
+    // BY_NAME differs from compareTo only for products whose names match
+    // (ignoring case): compareTo calls them equal, BY_NAME orders them by id.
+    public static final Comparator<Product> BY_NAME =
+            Comparator.<Product>naturalOrder().thenComparing(Product::getId);
+    public static final Comparator<Product> BY_PRICE =
+            Comparator.comparingDouble(Product::getPrice).thenComparing(Product::getId);
+    public static final Comparator<Product> BY_CALORIES =
+            Comparator.comparingInt(Product::getCalories).thenComparing(Product::getId);
+    public static final Comparator<Product> BY_UPDATED_AT =
+            Comparator.comparing(Product::getUpdatedAt).thenComparing(Product::getId);
+
     // Product fields.
     private final String id;
     private final String name;
@@ -16,7 +33,8 @@ public class Product implements Comparable<Product> {
     private double price;
     private int stock;
     private String description;
-    private final Set<String> allergens;
+    // Allergens as a bitmask over the shared Allergens dictionary.
+    private final long allergenMask;
     private final int calories;
     private final LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -53,14 +71,8 @@ public class Product implements Comparable<Product> {
         this.stock = stock;
         // Sanitize and assign product description.
         this.description = sanitize(description);
-        // Initialize allergens set.
-        this.allergens = new HashSet<>();
-        if (allergens != null) {
-            for (String a : allergens) {
-                // Normalize allergen strings to lowercase and trim spaces.
-                this.allergens.add(a.toLowerCase().trim());
-            }
-        }
+        // Intern the allergens (normalized to lowercase, trimmed) into a bitmask.
+        this.allergenMask = Allergens.maskOf(allergens);
         this.calories = calories;
         // Set creation and updated timestamps.
         this.createdAt = LocalDateTime.now();
@@ -78,6 +90,35 @@ public class Product implements Comparable<Product> {
         this(name, "Unknown", 0.01, 0, "", null, 1);
     }
 
+    /**
+     * Copy constructor: same id and the other product's current field values.
+     *
+     * @param other the product to copy
+     */
+    private Product(Product other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.category = other.category;
+        this.price = other.price;
+        this.stock = other.stock;
+        this.description = other.description;
+        this.allergenMask = other.allergenMask;
+        this.calories = other.calories;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
+    /**
+     * Returns a detached copy of this product's current state. The copy has the
+     * same id, so it equals this product, but later changes to either one do not
+     * affect the other. CatalogSnapshot keeps such copies.
+     *
+     * @return the copy
+     */
+    public Product copy() {
+        return new Product(this);
+    }
+
     /**
      * Validates the input parameters for a product.
      *
@@ -127,19 +168,28 @@ public class Product implements Comparable<Product> {
     public int getStock() { return stock; }
     public String getDescription() { return description; }
     /**
-     * Returns a copy of the allergens set to ensure encapsulation.
+     * Returns a new set of the allergen names to ensure encapsulation.
+     */
+    public Set<String> getAllergens() { return Allergens.namesOf(allergenMask); }
+    /**
+     * Returns the allergens as a bitmask over the Allergens dictionary.
+     */
+    public long getAllergenMask() { return allergenMask; }
+    /**
+     * Checks whether the product contains any allergen in a mask.
      */
-    public Set<String> getAllergens() { return new HashSet<>(allergens); }
+    public boolean hasAnyAllergen(long mask) { return (allergenMask & mask) != 0; }
     public int getCalories() { return calories; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
 
     /**
      * Updates the product price and refreshes the update timestamp.
+     * Not for a product in a catalog: use ProductCatalog.updateProduct (not enforced).
      *
      * @param price the new price (must be >= 0.01)
      */
-    public void setPrice(double price) {
+    void setPrice(double price) {
         if (price < 0.01) {
             throw new IllegalArgumentException("Invalid price");
         }
@@ -149,10 +199,11 @@ public class Product implements Comparable<Product> {
 
     /**
      * Updates the product stock and refreshes the update timestamp.
+     * Not for a product in a catalog: use ProductCatalog.updateProduct (not enforced).
      *
      * @param stock the new stock level (must be >= 0)
      */
-    public void setStock(int stock) {
+    void setStock(int stock) {
         if (stock < 0) {
             throw new IllegalArgumentException("Invalid stock");
         }
@@ -162,21 +213,23 @@ public class Product implements Comparable<Product> {
 
     /**
      * Updates the product description and refreshes the update timestamp.
+     * Not for a product in a catalog: use ProductCatalog.updateProduct (not enforced).
      *
      * @param desc the new description
      */
-    public void setDescription(String desc) {
+    void setDescription(String desc) {
         this.description = sanitize(desc);
         this.updatedAt = LocalDateTime.now();
     }
 
     /**
      * Decrements the product stock by a specified quantity.
+     * Not for a product in a catalog: use ProductCatalog.updateProduct (not enforced).
      *
      * @param quantity the quantity to decrement
      * @throws IllegalArgumentException if quantity exceeds available stock.
      */
-    public void decrementStock(int quantity) {
+    void decrementStock(int quantity) {
         if (quantity > this.stock) {
             throw new IllegalArgumentException("Insufficient stock");
         }
@@ -1,108 +1,562 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
 
-// The ProductCatalog class maintains a collection of products organized in two Binary Search Trees (BSTs):
-// one sorted by product name (using the default compareTo method) and another sorted by price.
-// This dual-structure allows for efficient lookups by name and price.
+// The ProductCatalog class maintains a collection of products organized in several Binary Search Trees (BSTs):
+// one sorted by product name (using the default compareTo method), and secondary indexes sorted
+// by price, calories and last update time (using the Product comparators).
+// Each category also has its own name- and price-sorted trees, so one category can be
+// counted, listed or paged without touching the rest of the catalog.
+// This allows for efficient lookups by name, price and the other indexed fields.
+// Every tree holds references to the same Product objects, so the indexes never go stale.
+// A NameTrie over names answers autocomplete (prefix) queries.
+// All trees are self-balancing AVL trees, so a catalog loaded in sorted order stays O(log n) deep.
+//
+// The indexes above are mutable. Writers are synchronized, and each one also publishes a new
+// CatalogSnapshot (persistent trees of frozen product copies, built by path copying) with one
+// volatile write. Browsing reads - findByName, search, query, allergen filters and the lazy
+// productsBy* iterables - are answered from the current snapshot without any locks, so they
+// return frozen copies of the products. The other reads use the mutable indexes and hold the
+// same lock as the writers.
 public class ProductCatalog {
 
-    // BST that sorts products by name (using Product.compareTo)
+    // Two prices closer than this are treated as equal.
+    public static final double PRICE_EPSILON = 0.000001;
+
+    // Inner static class describing one change for updateAll.
+    public static class ProductUpdate {
+        private final Product product;
+        // The new price, or null to keep the price the product has when the update is applied.
+        private final Double newPrice;
+        private final String newDesc;
+        // The new stock, or the quantity to add to the stock if stockIsDelta is set.
+        private final int stock;
+        private final boolean stockIsDelta;
+
+        /**
+         * Constructs an update with the same meaning as the arguments of updateProduct.
+         *
+         * @param product  the Product to update
+         * @param newPrice the new price to set
+         * @param newDesc  the new description to set (if not empty)
+         * @param newStock the new stock quantity to set
+         */
+        public ProductUpdate(Product product, double newPrice, String newDesc, int newStock) {
+            this(product, Double.valueOf(newPrice), newDesc, newStock, false);
+        }
+
+        private ProductUpdate(Product product, Double newPrice, String newDesc,
+                              int stock, boolean stockIsDelta)
+        {
+            if (product == null) {
+                throw new NullPointerException("Product cannot be null");
+            }
+            this.product = product;
+            this.newPrice = newPrice;
+            this.newDesc = newDesc;
+            this.stock = stock;
+            this.stockIsDelta = stockIsDelta;
+        }
+
+        /**
+         * Builds an update that only adds stock to a product. The quantity is added
+         * to the stock the product has when the update is applied, so a batch that
+         * lists a product twice adds both quantities. The price is left unchanged.
+         *
+         * @param product the Product to restock
+         * @param addQty  the quantity to add
+         * @return the update
+         */
+        public static ProductUpdate restock(Product product, int addQty) {
+            return adjust(product, null, null, addQty);
+        }
+
+        /**
+         * Builds an update that changes only what is given. As with restock, the
+         * quantity is added to the stock the product has when the update is applied.
+         *
+         * @param product  the Product to update
+         * @param newPrice the new price, or null to leave the price unchanged
+         * @param newDesc  the new description (if not empty)
+         * @param addQty   the quantity to add to the stock (may be 0)
+         * @return the update
+         */
+        public static ProductUpdate adjust(Product product, Double newPrice, String newDesc, int addQty) {
+            return new ProductUpdate(product, newPrice, newDesc, addQty, true);
+        }
+
+        public Product getProduct()    { return product; }
+        public String getNewDesc()     { return newDesc; }
+
+        // The price to set on a product whose price is currently currentPrice.
+        double priceFor(double currentPrice) {
+            return (newPrice == null) ? currentPrice : newPrice;
+        }
+
+        // The stock to set on a product whose stock is currently currentStock.
+        int stockFor(int currentStock) {
+            return stockIsDelta ? currentStock + stock : stock;
+        }
+    }
+
+    // Inner static class holding the products of one category.
+    private static class CategoryIndex {
+        // The category name as first added (lookups ignore case).
+        final String name;
+        // The category's products sorted by name (using Product.BY_NAME).
+        final BST<Product> byName;
+        // The category's products sorted by price (using Product.BY_PRICE).
+        final BST<Product> byPrice;
+
+        CategoryIndex(String name) {
+            this.name = name;
+            this.byName = new AVLTree<>(Product.BY_NAME);
+            this.byPrice = new AVLTree<>(Product.BY_PRICE);
+        }
+    }
+
+    // BST that sorts products by name (using Product.BY_NAME, i.e. compareTo then id)
     private BST<Product> byName;
-    // BST that sorts products by price. We override compareTo via a wrapper.
+    // BST that sorts the same products by price (using Product.BY_PRICE).
     private BST<Product> byPrice;
+    // BST that sorts the same products by calories (using Product.BY_CALORIES).
+    private BST<Product> byCalories;
+    // Per-category trees, keyed by lowercase category name. There is no catalog-wide
+    // category-ordered tree: a category's products are reached through its own entry.
+    private Map<String, CategoryIndex> byCategory;
+    // BST that sorts the same products by last update time (using Product.BY_UPDATED_AT).
+    private BST<Product> byUpdatedAt;
+    // Radix trie over product names for autocomplete.
+    private NameTrie nameTrie;
+    // Latest published snapshot; replaced, never modified, by writers.
+    private volatile CatalogSnapshot snapshot;
 
     /**
      * Constructs an empty ProductCatalog.
      */
     public ProductCatalog() {
-        byName = new BST<>();
-        byPrice = new BST<>();
+        byName = new AVLTree<>(Product.BY_NAME);
+        byPrice = new AVLTree<>(Product.BY_PRICE);
+        byCalories = new AVLTree<>(Product.BY_CALORIES);
+        byCategory = new HashMap<>();
+        byUpdatedAt = new AVLTree<>(Product.BY_UPDATED_AT);
+        nameTrie = new NameTrie();
+        snapshot = CatalogSnapshot.EMPTY;
+    }
+
+    /**
+     * Returns the latest published snapshot of the catalog. It never changes,
+     * so it can be read from any thread without locking, and it reflects every
+     * write that completed before this call.
+     *
+     * @return the current snapshot
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
     }
 
     /**
-     * Adds a product to both BSTs.
-     * The product is inserted into the name-based BST directly,
-     * and into the price-based BST after wrapping it to override compareTo.
+     * Adds a product to every index.
      *
      * @param p the Product to add
      */
-    public void addProduct(Product p) {
+    public synchronized void addProduct(Product p) {
+        link(p);
+        publish(snapshot.with(p));
+    }
+
+    /**
+     * Adds several products, e.g. when loading the catalog, and publishes them
+     * as one snapshot. Cheaper than adding them one by one, since the snapshot's
+     * text and allergen indexes are rebuilt at most once for the whole batch.
+     *
+     * @param products the Products to add
+     */
+    public synchronized void addAll(Collection<Product> products) {
+        CatalogSnapshot next = snapshot;
+        for (Product p : products) {
+            link(p);
+            next = next.with(p);
+        }
+        publish(next);
+    }
+
+    /**
+     * Inserts a product into the catalog's own indexes (not the snapshot).
+     *
+     * @param p the Product to add
+     */
+    private void link(Product p) {
         // Insert into the BST sorted by name.
         byName.insert(p);
-        // Wrap the product so that its compareTo compares by price, then insert.
-        Product priceWrapper = makePriceComparableCopy(p);
-        byPrice.insert(priceWrapper);
+        // Insert the same object into each secondary index.
+        byPrice.insert(p);
+        byCalories.insert(p);
+        CategoryIndex cat = byCategory.computeIfAbsent(categoryKey(p.getCategory()),
+                                                       k -> new CategoryIndex(p.getCategory()));
+        cat.byName.insert(p);
+        cat.byPrice.insert(p);
+        byUpdatedAt.insert(p);
+        nameTrie.add(p);
+    }
+
+    /**
+     * Publishes the next snapshot, first rebuilding its text and allergen
+     * indexes if enough products have changed (see CatalogSnapshot.reindexed).
+     * Each write operation publishes once.
+     *
+     * @param next the snapshot to publish
+     */
+    private void publish(CatalogSnapshot next) {
+        snapshot = next.reindexed();
     }
 
     /**
-     * Searches for a product by its name.
-     * Uses the minimal constructor of Product to create a search key.
+     * Searches for a product by its name (ignoring case).
+     * If several products share the name, the one with the lexicographically
+     * smallest id is returned; ids compare as strings, so "P10000" precedes "P9999".
+     *
+     * Reads the current snapshot, so the result is a frozen copy; pass it to
+     * updateProduct or removeProduct to change the product itself.
      *
      * @param name the product name to search for
-     * @return the matching Product if found, otherwise null
+     * @return a copy of the matching Product if found, otherwise null
      */
     public Product findByName(String name) {
-        // Create a minimal product (using name as the key) for search.
-        Product temp = new Product(name);
-        return byName.search(temp);
+        return snapshot.findByName(name);
+    }
+
+    /**
+     * Returns up to k products whose names start with a prefix (ignoring case),
+     * sorted by name. Runs in time proportional to the prefix length plus k.
+     *
+     * @param prefix the start of a product name
+     * @param k      the maximum number of completions
+     * @return the completions, possibly empty
+     */
+    public synchronized List<Product> autocomplete(String prefix, int k) {
+        return nameTrie.complete(prefix, k);
+    }
+
+    /**
+     * Searches for products whose name, category or description contains
+     * a keyword, ignoring case. Reads the current snapshot, whose inverted
+     * text index checks only candidate products.
+     *
+     * @param keyword the partial text to search for
+     * @return frozen copies of the matching products, sorted by name
+     */
+    public List<Product> search(String keyword) {
+        return snapshot.search(keyword);
+    }
+
+    /**
+     * Runs a combined query against the current snapshot (see CatalogSnapshot.query).
+     *
+     * @param q the query to run
+     * @return frozen copies of the matching products, sorted and limited as the query asks
+     */
+    public List<Product> query(ProductQuery q) {
+        return snapshot.query(q);
+    }
+
+    /**
+     * Describes how query() would run a query (see CatalogSnapshot.explain).
+     *
+     * @param q the query to explain
+     * @return a multi-line description of the plan
+     */
+    public String explain(ProductQuery q) {
+        return snapshot.explain(q);
+    }
+
+    /**
+     * Returns every product that contains none of the given allergens, sorted by name.
+     * Runs as word-wide bitwise operations over the allergen bitmaps.
+     *
+     * Reads the current snapshot.
+     *
+     * @param excluded the allergen names to avoid (ignoring case)
+     * @return frozen copies of the products free of all of them
+     */
+    public List<Product> findWithoutAllergens(Collection<String> excluded) {
+        return snapshot.findWithoutAllergens(excluded);
+    }
+
+    /**
+     * Returns the number of products that contain an allergen.
+     *
+     * @param allergen the allergen name (ignoring case)
+     * @return the product count
+     */
+    public int countWithAllergen(String allergen) {
+        return snapshot.countWithAllergen(allergen);
     }
 
     /**
      * Searches for a product that has an exact price match.
-     * Performs an in-order traversal of the price-based BST and compares prices.
+     * Descends the price-based BST, comparing prices with a tolerance of
+     * PRICE_EPSILON for floating point arithmetic.
      *
      * @param price the price to search for
      * @return the matching Product if found, otherwise null
      */
-    public Product findByExactPrice(double price) {
-        // Retrieve products in order sorted by price.
-        List<Product> list = byPrice.inOrderTraversal();
-        for (Product p : list) {
-            // Compare prices with a tolerance for floating point arithmetic.
-            if (Math.abs(p.getPrice() - price) < 0.000001) {
-                return p;
-            }
-        }
-        return null;
+    public synchronized Product findByExactPrice(double price) {
+        return byPrice.nearestWithin(priceOffset(price), PRICE_EPSILON);
+    }
+
+    /**
+     * Returns every product at a given price (within PRICE_EPSILON).
+     *
+     * @param price the price to search for
+     * @return the matching products, possibly empty
+     */
+    public synchronized List<Product> findAllByExactPrice(double price) {
+        return byPrice.equalWithin(priceOffset(price), PRICE_EPSILON);
+    }
+
+    /**
+     * Returns the most expensive product that costs no more than a price.
+     *
+     * @param price the maximum price
+     * @return the matching Product, or null if every product costs more
+     */
+    public synchronized Product findFloorByPrice(double price) {
+        return byPrice.floorWithin(priceOffset(price), PRICE_EPSILON);
+    }
+
+    /**
+     * Returns the cheapest product that costs at least a price.
+     *
+     * @param price the minimum price
+     * @return the matching Product, or null if every product costs less
+     */
+    public synchronized Product findCeilingByPrice(double price) {
+        return byPrice.ceilingWithin(priceOffset(price), PRICE_EPSILON);
+    }
+
+    /**
+     * Returns the product whose price is closest to a given price.
+     *
+     * @param price the price to search for
+     * @return the nearest Product, or null if the catalog is empty
+     */
+    public synchronized Product findNearestByPrice(double price) {
+        return byPrice.nearestWithin(priceOffset(price), Double.POSITIVE_INFINITY);
     }
 
     /**
-     * Removes a product from both BSTs.
+     * Removes a product from every index.
+     * Does nothing if the product is not in the catalog.
      *
-     * @param p the Product to remove
+     * @param product the Product to remove (or a snapshot copy of it)
      */
-    public void removeProduct(Product p) {
+    public synchronized void removeProduct(Product product) {
+        // Each index locates the product by its current keys, so use the catalog's own instance.
+        Product p = byName.search(product);
+        if (p == null) {
+            return;
+        }
         // Remove from the name-based BST.
         byName.remove(p);
-        // Remove from the price-based BST using the price-comparable wrapper.
-        Product priceWrapper = makePriceComparableCopy(p);
-        byPrice.remove(priceWrapper);
+        // Remove from each secondary index.
+        byPrice.remove(p);
+        byCalories.remove(p);
+        String key = categoryKey(p.getCategory());
+        CategoryIndex cat = byCategory.get(key);
+        if (cat != null) {
+            cat.byName.remove(p);
+            cat.byPrice.remove(p);
+            // Drop a category once its last product is gone.
+            if (cat.byName.isEmpty()) {
+                byCategory.remove(key);
+            }
+        }
+        byUpdatedAt.remove(p);
+        nameTrie.remove(p);
+        publish(snapshot.without(p));
     }
 
     /**
-     * Updates an existing product by removing it, updating its fields,
-     * and re-adding it to both BSTs.
+     * Updates an existing product in place.
+     * Only fields whose value changes are set, and only the indexes keyed on
+     * those fields are re-positioned: the price trees (catalog-wide and the
+     * product's category) when the price changes, and the update-time tree
+     * whenever anything changes. Name, category and
+     * calories cannot change, so those trees are never touched.
      *
-     * @param original the Product to update
+     * @param original the Product to update (or a snapshot copy of it)
      * @param newPrice the new price to set
      * @param newDesc  the new description to set (if not empty)
      * @param newStock the new stock quantity to set
+     * @throws IllegalArgumentException if the product is not in the catalog or
+     *         the price or stock is invalid; the product and catalog are left unchanged
      */
-    public void updateProduct(Product original,
+    public synchronized void updateProduct(Product original,
                               double newPrice,
                               String newDesc,
                               int newStock)
     {
-        // Remove the product from both trees.
-        removeProduct(original);
+        Product live = liveInstance(original);
+        validateUpdate(newPrice, newStock);
+        if (applyUpdate(live, newPrice, newDesc, newStock)) {
+            publish(snapshot.with(live));
+        }
+    }
+
+    /**
+     * Applies one update built by ProductUpdate, e.g. a price change together
+     * with a restock. The update is resolved against the product's current
+     * values under the catalog lock, so concurrent changes are not lost.
+     *
+     * @param update the update to apply
+     * @throws IllegalArgumentException if the product is not in the catalog or
+     *         the price or stock is invalid; the product and catalog are left unchanged
+     */
+    public synchronized void updateProduct(ProductUpdate update) {
+        updateAll(Collections.singletonList(update));
+    }
+
+    /**
+     * Takes stock from a product if it has enough, e.g. for an order.
+     * The check and the decrement both use the product's current stock under
+     * the catalog lock, so concurrent orders cannot oversell it.
+     *
+     * @param product the product (or a snapshot copy of it)
+     * @param qty     the quantity to take (must be > 0)
+     * @return true if the stock was taken; false if the product is no longer in
+     *         the catalog or has fewer than qty in stock
+     * @throws IllegalArgumentException if qty is not positive
+     */
+    public synchronized boolean decrementStock(Product product, int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Invalid quantity: " + qty);
+        }
+        Product live = byName.search(product);
+        if (live == null || live.getStock() < qty) {
+            return false;
+        }
+        applyUpdate(live, live.getPrice(), null, live.getStock() - qty);
+        publish(snapshot.with(live));
+        return true;
+    }
+
+    /**
+     * Applies a batch of updates, e.g. a bulk restock.
+     * Every update is validated before any is applied, so an invalid entry
+     * leaves the whole catalog unchanged. Updates apply in order, so restocks
+     * of the same product add up. The batch is published as one
+     * snapshot, so readers see either none or all of it.
+     *
+     * @param updates the updates to apply, in order
+     * @return the number of updates that changed a product
+     * @throws IllegalArgumentException if any product is not in the catalog or
+     *         any price or stock is invalid
+     */
+    public synchronized int updateAll(Collection<ProductUpdate> updates) {
+        // Stock each product will have once the updates before it are applied.
+        Map<Product, Integer> stock = new IdentityHashMap<>();
+        List<Product> targets = new ArrayList<>(updates.size());
+        for (ProductUpdate u : updates) {
+            Product live = liveInstance(u.getProduct());
+            int newStock = u.stockFor(stock.getOrDefault(live, live.getStock()));
+            validateUpdate(u.priceFor(live.getPrice()), newStock);
+            stock.put(live, newStock);
+            targets.add(live);
+        }
+        int changed = 0;
+        CatalogSnapshot next = snapshot;
+        Iterator<Product> live = targets.iterator();
+        for (ProductUpdate u : updates) {
+            Product p = live.next();
+            if (applyUpdate(p, u.priceFor(p.getPrice()), u.getNewDesc(), u.stockFor(p.getStock()))) {
+                next = next.with(p);
+                changed++;
+            }
+        }
+        publish(next);
+        return changed;
+    }
+
+    /**
+     * Returns the catalog's own instance of a product.
+     *
+     * @param product the product, or a snapshot copy of it
+     * @return the catalog's instance
+     * @throws IllegalArgumentException if the product is not in the catalog
+     */
+    private Product liveInstance(Product product) {
+        // The name tree orders by name, then id, so this finds the product by its id.
+        Product live = byName.search(product);
+        if (live == null) {
+            throw new IllegalArgumentException("Product not in catalog: " + product.getName());
+        }
+        return live;
+    }
+
+    /**
+     * Checks that an update's values follow the same rules as Product's setters.
+     *
+     * @param newPrice the new price
+     * @param newStock the new stock quantity
+     * @throws IllegalArgumentException if either value is invalid
+     */
+    private static void validateUpdate(double newPrice, int newStock) {
+        if (newPrice < 0.01) {
+            throw new IllegalArgumentException("Invalid price: " + newPrice);
+        }
+        if (newStock < 0) {
+            throw new IllegalArgumentException("Invalid stock: " + newStock);
+        }
+    }
+
+    /**
+     * Sets the changed fields of a product and re-positions the affected indexes.
+     *
+     * @param original the catalog's own instance of the Product (see liveInstance)
+     * @param newPrice the new price to set
+     * @param newDesc  the new description to set (if not empty)
+     * @param newStock the new stock quantity to set
+     * @return true if any field changed
+     */
+    private boolean applyUpdate(Product original, double newPrice, String newDesc, int newStock) {
+        boolean priceChanged = Double.compare(original.getPrice(), newPrice) != 0;
+        boolean descChanged = newDesc != null && !newDesc.isEmpty()
+                              && !newDesc.equals(original.getDescription());
+        boolean stockChanged = original.getStock() != newStock;
+        if (!priceChanged && !descChanged && !stockChanged) {
+            return false;
+        }
+        // Unlink the product from the trees keyed on fields about to change.
+        CategoryIndex cat = byCategory.get(categoryKey(original.getCategory()));
+        if (priceChanged) {
+            byPrice.remove(original);
+            cat.byPrice.remove(original);
+        }
+        byUpdatedAt.remove(original);
         // Update the product's fields.
-        original.setPrice(newPrice);
-        if (newDesc != null && !newDesc.isEmpty()) {
+        if (priceChanged) {
+            original.setPrice(newPrice);
+        }
+        if (descChanged) {
             original.setDescription(newDesc);
         }
-        original.setStock(newStock);
-        // Re-add the updated product to the catalog.
-        addProduct(original);
+        if (stockChanged) {
+            original.setStock(newStock);
+        }
+        // Re-link it at its new positions.
+        if (priceChanged) {
+            byPrice.insert(original);
+            cat.byPrice.insert(original);
+        }
+        byUpdatedAt.insert(original);
+        return true;
     }
 
     /**
@@ -110,7 +564,7 @@ public class ProductCatalog {
      *
      * @return a list of products sorted by name.
      */
-    public List<Product> getAllByName() {
+    public synchronized List<Product> getAllByName() {
         return byName.inOrderTraversal();
     }
 
@@ -119,31 +573,240 @@ public class ProductCatalog {
      *
      * @return a list of products sorted by price.
      */
-    public List<Product> getAllByPrice() {
+    public synchronized List<Product> getAllByPrice() {
         return byPrice.inOrderTraversal();
     }
 
     /**
-     * Helper method that returns a "clone" of a product but overrides compareTo
-     * to compare products by price rather than by name.
+     * Returns the products sorted by name without copying them into a list.
+     * Iteration happens outside any lock, so this walks the current snapshot lazily.
      *
-     * @param p the Product to wrap
-     * @return a new Product instance that compares by price
+     * @return an Iterable over frozen copies of the products in name order
      */
-    private Product makePriceComparableCopy(Product p) {
-        return new Product(p.getName(),
-                           p.getCategory(),
-                           p.getPrice(),
-                           p.getStock(),
-                           p.getDescription(),
-                           p.getAllergens(),
-                           p.getCalories())
-        {
-            // Override the compareTo method so that comparisons are made based on price.
-            @Override
-            public int compareTo(Product other) {
-                return Double.compare(this.getPrice(), other.getPrice());
-            }
-        };
+    public Iterable<Product> productsByName() {
+        return snapshot.productsByName();
+    }
+
+    /**
+     * Returns the products sorted by price without copying them into a list.
+     * Iteration happens outside any lock, so this walks the current snapshot lazily.
+     *
+     * @return an Iterable over frozen copies of the products in price order
+     */
+    public Iterable<Product> productsByPrice() {
+        return snapshot.productsByPrice();
+    }
+
+    /**
+     * Returns the number of products in the catalog.
+     *
+     * @return the product count
+     */
+    public synchronized int getProductCount() {
+        return byName.getSize();
+    }
+
+    /**
+     * Returns all products priced between lo and hi (inclusive), cheapest first.
+     * Only the products in the range are visited.
+     *
+     * @param lo the minimum price
+     * @param hi the maximum price
+     * @return the products in the price range
+     */
+    public synchronized List<Product> findByPriceRange(double lo, double hi) {
+        return byPrice.betweenKeys(p -> Double.compare(lo, p.getPrice()),
+                                   p -> Double.compare(hi, p.getPrice()));
+    }
+
+    /**
+     * Returns all products whose names fall between two names (inclusive, ignoring case).
+     *
+     * @param from the first name in the range
+     * @param to   the last name in the range
+     * @return the products in the name range, sorted by name
+     */
+    public synchronized List<Product> findByNameRange(String from, String to) {
+        return byName.betweenKeys(p -> from.compareToIgnoreCase(p.getName()),
+                                  p -> to.compareToIgnoreCase(p.getName()));
+    }
+
+    /**
+     * Returns every product in a category (ignoring case), sorted by name.
+     *
+     * @param category the category to list
+     * @return the products in that category
+     */
+    public synchronized List<Product> findByCategory(String category) {
+        CategoryIndex cat = byCategory.get(categoryKey(category));
+        return (cat == null) ? new ArrayList<>() : cat.byName.inOrderTraversal();
+    }
+
+    /**
+     * Returns the names of all categories, sorted alphabetically (ignoring case).
+     *
+     * @return the category names
+     */
+    public synchronized List<String> getCategories() {
+        List<String> names = new ArrayList<>(byCategory.size());
+        for (CategoryIndex cat : byCategory.values()) {
+            names.add(cat.name);
+        }
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    /**
+     * Returns the number of products in a category (ignoring case) in O(1).
+     *
+     * @param category the category to count
+     * @return the product count, or 0 for an unknown category
+     */
+    public synchronized int getCategoryCount(String category) {
+        CategoryIndex cat = byCategory.get(categoryKey(category));
+        return (cat == null) ? 0 : cat.byName.getSize();
+    }
+
+    /**
+     * Returns one page of a category's products sorted by name.
+     *
+     * @param category the category to page through (ignoring case)
+     * @param page     the page number (0-based)
+     * @param pageSize the number of products per page
+     * @return the products on that page (empty past the last page)
+     */
+    public synchronized List<Product> getCategoryPageByName(String category, int page, int pageSize) {
+        CategoryIndex cat = byCategory.get(categoryKey(category));
+        return (cat == null) ? new ArrayList<>() : cat.byName.page(page * pageSize, pageSize);
+    }
+
+    /**
+     * Returns one page of a category's products sorted by price.
+     *
+     * @param category the category to page through (ignoring case)
+     * @param page     the page number (0-based)
+     * @param pageSize the number of products per page
+     * @return the products on that page (empty past the last page)
+     */
+    public synchronized List<Product> getCategoryPageByPrice(String category, int page, int pageSize) {
+        CategoryIndex cat = byCategory.get(categoryKey(category));
+        return (cat == null) ? new ArrayList<>() : cat.byPrice.page(page * pageSize, pageSize);
+    }
+
+    /**
+     * Returns a category's products priced between lo and hi (inclusive), cheapest first.
+     *
+     * @param category the category to search (ignoring case)
+     * @param lo       the minimum price
+     * @param hi       the maximum price
+     * @return the products in the category and price range
+     */
+    public synchronized List<Product> findByCategoryAndPriceRange(String category, double lo, double hi) {
+        CategoryIndex cat = byCategory.get(categoryKey(category));
+        if (cat == null) {
+            return new ArrayList<>();
+        }
+        return cat.byPrice.betweenKeys(p -> Double.compare(lo, p.getPrice()),
+                                       p -> Double.compare(hi, p.getPrice()));
+    }
+
+    /**
+     * Returns every product with a calorie count between lo and hi (inclusive),
+     * lowest first.
+     *
+     * @param lo the minimum calories
+     * @param hi the maximum calories
+     * @return the products in the calorie range
+     */
+    public synchronized List<Product> findByCalorieRange(int lo, int hi) {
+        return byCalories.betweenKeys(p -> Integer.compare(lo, p.getCalories()),
+                                      p -> Integer.compare(hi, p.getCalories()));
+    }
+
+    /**
+     * Returns the n most recently updated products, newest first.
+     *
+     * @param n the number of products to return
+     * @return up to n products sorted by update time, descending
+     */
+    public synchronized List<Product> getRecentlyUpdated(int n) {
+        int count = Math.min(n, byUpdatedAt.getSize());
+        List<Product> recent = byUpdatedAt.page(byUpdatedAt.getSize() - count, count);
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    /**
+     * Returns the n cheapest products, cheapest first.
+     *
+     * @param n the number of products to return
+     * @return up to n products sorted by price
+     */
+    public synchronized List<Product> getCheapest(int n) {
+        return byPrice.page(0, n);
+    }
+
+    /**
+     * Returns the number of products that cost strictly less than a price.
+     *
+     * @param price the price to rank
+     * @return the count of cheaper products
+     */
+    public synchronized int rankByPrice(double price) {
+        return byPrice.rankKeys(p -> Double.compare(price, p.getPrice()));
+    }
+
+    /**
+     * Returns the k-th cheapest product (0-based).
+     *
+     * @param k the index in price order
+     * @return the product at that position
+     * @throws IndexOutOfBoundsException if k is out of range
+     */
+    public synchronized Product selectByPrice(int k) {
+        return byPrice.select(k);
+    }
+
+    /**
+     * Returns one page of products sorted by name.
+     *
+     * @param page     the page number (0-based)
+     * @param pageSize the number of products per page
+     * @return the products on that page (empty past the last page)
+     */
+    public synchronized List<Product> getPageByName(int page, int pageSize) {
+        return byName.page(page * pageSize, pageSize);
+    }
+
+    /**
+     * Returns one page of products sorted by price.
+     *
+     * @param page     the page number (0-based)
+     * @param pageSize the number of products per page
+     * @return the products on that page (empty past the last page)
+     */
+    public synchronized List<Product> getPageByPrice(int page, int pageSize) {
+        return byPrice.page(page * pageSize, pageSize);
+    }
+
+    /**
+     * Returns the key a category is stored under, so lookups ignore case.
+     *
+     * @param category the category name
+     * @return the lowercase, trimmed name
+     */
+    static String categoryKey(String category) {
+        return category.trim().toLowerCase();
+    }
+
+    /**
+     * Returns the signed distance of a product's price from a target price,
+     * for the price-based BST's *Within lookups.
+     *
+     * @param price the target price
+     * @return a function giving p.getPrice() - price
+     */
+    private static ToDoubleFunction<Product> priceOffset(double price) {
+        return p -> p.getPrice() - price;
     }
 }
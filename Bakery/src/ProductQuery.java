@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A combined product query for ProductCatalog.query: predicates on name,
+ * category, price, calories, allergens and stock, plus a sort order and limit.
+ *
+ * Queries are built by chaining, e.g.
+ *   new ProductQuery().category("Pastry").maxPrice(3).maxCalories(300)
+ *                     .excludeAllergens("milk").sortBy(ProductQuery.SortKey.PRICE).limit(20)
+ * Unset predicates match everything. Bounds are inclusive.
+ */
+public class ProductQuery {
+
+    /**
+     * The orderings a query result can be sorted by.
+     */
+    public enum SortKey {
+        NAME(Product.BY_NAME),
+        PRICE(Product.BY_PRICE),
+        CALORIES(Product.BY_CALORIES);
+
+        private final Comparator<Product> order;
+
+        SortKey(Comparator<Product> order) {
+            this.order = order;
+        }
+
+        public Comparator<Product> getOrder() { return order; }
+    }
+
+    private String namePrefix;
+    private String category;
+    private double minPrice = Double.NEGATIVE_INFINITY;
+    private double maxPrice = Double.POSITIVE_INFINITY;
+    private int minCalories = Integer.MIN_VALUE;
+    private int maxCalories = Integer.MAX_VALUE;
+    private int minStock = Integer.MIN_VALUE;
+    private final List<String> excludedAllergens = new ArrayList<>();
+    private SortKey sortBy = SortKey.NAME;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Only match products whose name starts with a prefix (ignoring case).
+     *
+     * @param prefix the name prefix
+     * @return this query
+     */
+    public ProductQuery namePrefix(String prefix) {
+        this.namePrefix = prefix;
+        return this;
+    }
+
+    /**
+     * Only match products in a category (ignoring case).
+     *
+     * @param category the category name
+     * @return this query
+     */
+    public ProductQuery category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    /**
+     * Only match products costing at least a price.
+     *
+     * @param price the minimum price
+     * @return this query
+     */
+    public ProductQuery minPrice(double price) {
+        this.minPrice = price;
+        return this;
+    }
+
+    /**
+     * Only match products costing at most a price.
+     *
+     * @param price the maximum price
+     * @return this query
+     */
+    public ProductQuery maxPrice(double price) {
+        this.maxPrice = price;
+        return this;
+    }
+
+    /**
+     * Only match products with at least a number of calories.
+     *
+     * @param calories the minimum calories
+     * @return this query
+     */
+    public ProductQuery minCalories(int calories) {
+        this.minCalories = calories;
+        return this;
+    }
+
+    /**
+     * Only match products with at most a number of calories.
+     *
+     * @param calories the maximum calories
+     * @return this query
+     */
+    public ProductQuery maxCalories(int calories) {
+        this.maxCalories = calories;
+        return this;
+    }
+
+    /**
+     * Only match products with at least a quantity in stock.
+     *
+     * @param stock the minimum stock
+     * @return this query
+     */
+    public ProductQuery minStock(int stock) {
+        this.minStock = stock;
+        return this;
+    }
+
+    /**
+     * Only match products that contain none of the given allergens.
+     *
+     * @param allergens the allergen names (ignoring case)
+     * @return this query
+     */
+    public ProductQuery excludeAllergens(String... allergens) {
+        Collections.addAll(excludedAllergens, allergens);
+        return this;
+    }
+
+    /**
+     * Sorts the results (by name unless set).
+     *
+     * @param key the sort order
+     * @return this query
+     */
+    public ProductQuery sortBy(SortKey key) {
+        this.sortBy = key;
+        return this;
+    }
+
+    /**
+     * Returns at most n results.
+     *
+     * @param n the maximum number of results (must be >= 0)
+     * @return this query
+     */
+    public ProductQuery limit(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Limit must be >= 0: " + n);
+        }
+        this.limit = n;
+        return this;
+    }
+
+    public String getNamePrefix()              { return namePrefix; }
+    public String getCategory()                { return category; }
+    public double getMinPrice()                { return minPrice; }
+    public double getMaxPrice()                { return maxPrice; }
+    public int getMinCalories()                { return minCalories; }
+    public int getMaxCalories()                { return maxCalories; }
+    public int getMinStock()                   { return minStock; }
+    public List<String> getExcludedAllergens() { return Collections.unmodifiableList(excludedAllergens); }
+    public SortKey getSortBy()                 { return sortBy; }
+    public int getLimit()                      { return limit; }
+
+    public boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    public boolean hasCalorieRange() {
+        return minCalories != Integer.MIN_VALUE || maxCalories != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks every predicate of the query against a product.
+     *
+     * @param p            the product to check
+     * @param allergenMask the mask of the excluded allergens (see Allergens)
+     * @return true if the product matches
+     */
+    public boolean matches(Product p, long allergenMask) {
+        return (namePrefix == null || p.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length()))
+            && (category == null || p.getCategory().equalsIgnoreCase(category.trim()))
+            && p.getPrice() >= minPrice && p.getPrice() <= maxPrice
+            && p.getCalories() >= minCalories && p.getCalories() <= maxCalories
+            && p.getStock() >= minStock
+            && !p.hasAnyAllergen(allergenMask);
+    }
+
+    /**
+     * Returns the predicates of the query as text, for explain output.
+     *
+     * @return e.g. "category = Pastry, price <= 3.00"
+     */
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        if (namePrefix != null) {
+            parts.add("name starts with \"" + namePrefix + "\"");
+        }
+        if (category != null) {
+            parts.add("category = " + category);
+        }
+        if (minPrice != Double.NEGATIVE_INFINITY) {
+            parts.add(String.format("price >= %.2f", minPrice));
+        }
+        if (maxPrice != Double.POSITIVE_INFINITY) {
+            parts.add(String.format("price <= %.2f", maxPrice));
+        }
+        if (minCalories != Integer.MIN_VALUE) {
+            parts.add("calories >= " + minCalories);
+        }
+        if (maxCalories != Integer.MAX_VALUE) {
+            parts.add("calories <= " + maxCalories);
+        }
+        if (minStock != Integer.MIN_VALUE) {
+            parts.add("stock >= " + minStock);
+        }
+        if (!excludedAllergens.isEmpty()) {
+            parts.add("no " + String.join(", ", excludedAllergens));
+        }
+        return parts.isEmpty() ? "all products" : String.join(", ", parts);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Plans and runs a ProductQuery against one CatalogSnapshot.
+ *
+ * Every index that can answer the query reports its exact candidate count:
+ * range counts come from the persistent trees' subtree sizes, the allergen
+ * count from the bitmaps. The smallest source is streamed lazily, every
+ * predicate is rechecked on each candidate, and when the source already
+ * yields the requested order the scan stops at the limit.
+ */
+final class QueryPlanner {
+
+    // Inner static class describing one way to produce candidates for a query.
+    private static class QueryPlan {
+        // What the plan reads, for explain output.
+        final String index;
+        // Exact number of candidates the plan yields.
+        final int estimate;
+        // The order candidates come out in, or null if unordered.
+        final ProductQuery.SortKey order;
+        // Produces the candidates.
+        final Supplier<Iterator<Product>> source;
+
+        QueryPlan(String index, int estimate, ProductQuery.SortKey order,
+                  Supplier<Iterator<Product>> source)
+        {
+            this.index = index;
+            this.estimate = estimate;
+            this.order = order;
+            this.source = source;
+        }
+    }
+
+    // The snapshot queries run against.
+    private final CatalogSnapshot snapshot;
+
+    /**
+     * Constructs a planner for a snapshot.
+     *
+     * @param snapshot the snapshot to query
+     */
+    QueryPlanner(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Runs a combined query. The most selective index for the query's
+     * predicates supplies the candidates, every predicate is checked on each
+     * candidate, and the matches are sorted and limited. When the chosen index
+     * already yields the requested order, the scan stops at the limit.
+     *
+     * @param q the query to run
+     * @return the matching products, sorted and limited as the query asks
+     */
+    List<Product> query(ProductQuery q) {
+        long allergenMask = Allergens.lookupMask(q.getExcludedAllergens());
+        QueryPlan plan = choosePlan(planQuery(q, allergenMask), q);
+        boolean presorted = plan.order == q.getSortBy();
+        List<Product> result = new ArrayList<>();
+        Iterator<Product> it = plan.source.get();
+        while (it.hasNext() && !(presorted && result.size() >= q.getLimit())) {
+            Product p = it.next();
+            if (q.matches(p, allergenMask)) {
+                result.add(p);
+            }
+        }
+        if (!presorted) {
+            result.sort(q.getSortBy().getOrder());
+            if (result.size() > q.getLimit()) {
+                result = new ArrayList<>(result.subList(0, q.getLimit()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Describes how query() would run a query: the index it picks, the
+     * candidate count of every index it considered, and how results are ordered.
+     *
+     * @param q the query to explain
+     * @return a multi-line description of the plan
+     */
+    String explain(ProductQuery q) {
+        long allergenMask = Allergens.lookupMask(q.getExcludedAllergens());
+        List<QueryPlan> plans = planQuery(q, allergenMask);
+        QueryPlan plan = choosePlan(plans, q);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Query:      ").append(q).append("\n");
+        sb.append("Index:      ").append(plan.index)
+          .append(" (").append(plan.estimate).append(" of ")
+          .append(snapshot.getProductCount()).append(" products)\n");
+        List<String> considered = new ArrayList<>();
+        for (QueryPlan p : plans) {
+            considered.add(p.index + " = " + p.estimate);
+        }
+        sb.append("Considered: ").append(String.join("; ", considered)).append("\n");
+        sb.append("Filter:     every predicate is checked on each candidate\n");
+        sb.append("Order:      ").append(q.getSortBy().name().toLowerCase());
+        if (plan.order == q.getSortBy()) {
+            sb.append(", read from the index");
+            if (q.getLimit() != Integer.MAX_VALUE) {
+                sb.append("; stops after ").append(q.getLimit()).append(" matches");
+            }
+        } else {
+            sb.append(", sorted after filtering");
+            if (q.getLimit() != Integer.MAX_VALUE) {
+                sb.append("; first ").append(q.getLimit()).append(" kept");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Picks the plan with the fewest candidates; on a tie, one that already
+     * yields the requested order wins.
+     */
+    private QueryPlan choosePlan(List<QueryPlan> plans, ProductQuery q) {
+        QueryPlan best = null;
+        for (QueryPlan p : plans) {
+            if (best == null || p.estimate < best.estimate
+                || (p.estimate == best.estimate && p.order == q.getSortBy() && best.order != q.getSortBy()))
+            {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lists every index that can answer a query, with its exact candidate count.
+     * Range counts come from the trees' subtree sizes in O(log n); the allergen
+     * count is one pass over the bitmaps plus the products changed since they were built.
+     */
+    private List<QueryPlan> planQuery(ProductQuery q, long allergenMask) {
+        PersistentTree<Product> byName = snapshot.nameTree();
+        PersistentTree<Product> byPrice = snapshot.priceTree();
+        PersistentTree<Product> byCalories = snapshot.calorieTree();
+        List<QueryPlan> plans = new ArrayList<>();
+        // A full scan of the tree in the requested order always works.
+        PersistentTree<Product> sorted = (q.getSortBy() == ProductQuery.SortKey.PRICE) ? byPrice
+                                       : (q.getSortBy() == ProductQuery.SortKey.CALORIES) ? byCalories
+                                       : byName;
+        plans.add(new QueryPlan("full scan by " + q.getSortBy().name().toLowerCase(),
+                                snapshot.getProductCount(), q.getSortBy(), sorted::iterator));
+
+        Comparable<Product> priceLo = p -> Double.compare(q.getMinPrice(), p.getPrice());
+        Comparable<Product> priceHi = p -> Double.compare(q.getMaxPrice(), p.getPrice());
+        if (q.getNamePrefix() != null) {
+            String prefix = q.getNamePrefix();
+            Comparable<Product> lo = p -> prefix.compareToIgnoreCase(p.getName());
+            Comparable<Product> hi = p -> p.getName().regionMatches(true, 0, prefix, 0, prefix.length())
+                                          ? 0 : prefix.compareToIgnoreCase(p.getName());
+            plans.add(new QueryPlan("name prefix", byName.countBetweenKeys(lo, hi),
+                                    ProductQuery.SortKey.NAME, () -> byName.rangeIterator(lo, hi)));
+        }
+        if (q.getCategory() != null) {
+            CatalogSnapshot.Category cat = snapshot.category(q.getCategory());
+            if (cat == null) {
+                plans.add(new QueryPlan("category", 0, q.getSortBy(), Collections::emptyIterator));
+            } else if (q.hasPriceRange()) {
+                plans.add(new QueryPlan("category " + cat.name + " by price range",
+                                        cat.byPrice.countBetweenKeys(priceLo, priceHi), ProductQuery.SortKey.PRICE,
+                                        () -> cat.byPrice.rangeIterator(priceLo, priceHi)));
+            } else if (q.getSortBy() == ProductQuery.SortKey.PRICE) {
+                plans.add(new QueryPlan("category " + cat.name + " by price", cat.byPrice.size(),
+                                        ProductQuery.SortKey.PRICE, cat.byPrice::iterator));
+            } else {
+                plans.add(new QueryPlan("category " + cat.name + " by name", cat.byName.size(),
+                                        ProductQuery.SortKey.NAME, cat.byName::iterator));
+            }
+        }
+        if (q.hasPriceRange()) {
+            plans.add(new QueryPlan("price range", byPrice.countBetweenKeys(priceLo, priceHi),
+                                    ProductQuery.SortKey.PRICE, () -> byPrice.rangeIterator(priceLo, priceHi)));
+        }
+        if (q.hasCalorieRange()) {
+            Comparable<Product> lo = p -> Integer.compare(q.getMinCalories(), p.getCalories());
+            Comparable<Product> hi = p -> Integer.compare(q.getMaxCalories(), p.getCalories());
+            plans.add(new QueryPlan("calorie range", byCalories.countBetweenKeys(lo, hi),
+                                    ProductQuery.SortKey.CALORIES, () -> byCalories.rangeIterator(lo, hi)));
+        }
+        if (allergenMask != 0) {
+            plans.add(new QueryPlan("allergen bitmaps", snapshot.countWithout(allergenMask),
+                                    ProductQuery.SortKey.NAME, () -> snapshot.without(allergenMask).iterator()));
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index for partial (substring) search over product names,
+ * categories and descriptions.
+ *
+ * Each indexed product gets an integer document id. The lowercase text of its
+ * fields is split into tokens (runs of letters and digits), and every 1-, 2-
+ * and 3-character substring of every token is a "gram" whose postings list
+ * holds the ids of the documents containing it. Ids are handed out in
+ * increasing order, so postings lists are always sorted and can be
+ * intersected with a linear merge.
+ *
+ * A query is split into tokens the same way. Every query token is a substring
+ * of some document token, so each of its trigrams (or the token itself, if it
+ * is shorter than three characters) must appear in a matching document.
+ * Intersecting those postings, smallest first, gives a small candidate set,
+ * which is then checked with String.contains against the document's text.
+ *
+ * Removing a product only clears its document slot; the stale ids left in the
+ * postings are skipped by queries and dropped when the index compacts itself
+ * after more than half of its ids have gone stale.
+ */
+public class SearchIndex {
+
+    // Length of the longest gram that is indexed.
+    private static final int MAX_GRAM = 3;
+    // The index never compacts while it has fewer stale ids than this.
+    private static final int MIN_COMPACT = 1024;
+
+    // Documents by id; null once the document has been removed.
+    private final ArrayList<Product> docs;
+    // Lowercase searchable text by document id, fields separated by '\n'.
+    private final ArrayList<String> texts;
+    // Document id of each indexed product.
+    private final Map<Product, Integer> docIds;
+    // Postings list of each gram.
+    private final Map<String, Postings> postings;
+
+    /**
+     * Constructs an empty SearchIndex.
+     */
+    public SearchIndex() {
+        docs = new ArrayList<>();
+        texts = new ArrayList<>();
+        docIds = new HashMap<>();
+        postings = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of products in the index.
+     *
+     * @return the product count
+     */
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Indexes a product's name, category and description.
+     * A product that is already indexed is re-indexed with its current text.
+     *
+     * @param p the product to add
+     */
+    public void add(Product p) {
+        if (docIds.containsKey(p)) {
+            remove(p);
+        }
+        String text = searchableText(p);
+        int id = docs.size();
+        docs.add(p);
+        texts.add(text);
+        docIds.put(p, id);
+        Set<String> grams = new HashSet<>();
+        for (String token : tokenize(text)) {
+            addGrams(token, grams);
+        }
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param p the product to remove
+     * @return true if the product was indexed
+     */
+    public boolean remove(Product p) {
+        Integer id = docIds.remove(p);
+        if (id == null) {
+            return false;
+        }
+        docs.set(id, null);
+        texts.set(id, null);
+        int stale = docs.size() - docIds.size();
+        if (stale >= MIN_COMPACT && stale > docIds.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Returns every indexed product whose name, category or description
+     * contains the query, ignoring case, in the order the products were
+     * added (re-adding a product moves it to the end).
+     *
+     * @param query the text to search for
+     * @return the matching products
+     */
+    public List<Product> search(String query) {
+        String kw = query.toLowerCase();
+        List<Product> result = new ArrayList<>();
+        int[] candidates = candidates(kw);
+        if (candidates == null) {
+            // No usable grams (e.g. only spaces or punctuation): check every document.
+            for (int id = 0; id < docs.size(); id++) {
+                addIfMatches(id, kw, result);
+            }
+        } else {
+            for (int id : candidates) {
+                addIfMatches(id, kw, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks a single product the way search() checks its candidates, without
+     * indexing it.
+     *
+     * @param p     the product to check
+     * @param query the text to search for
+     * @return true if the product's name, category or description contains the query
+     */
+    public static boolean matches(Product p, String query) {
+        return searchableText(p).contains(query.toLowerCase());
+    }
+
+    /**
+     * Adds a document to a result list if it is live and its text contains kw.
+     */
+    private void addIfMatches(int id, String kw, List<Product> result) {
+        String text = texts.get(id);
+        if (text != null && text.contains(kw)) {
+            result.add(docs.get(id));
+        }
+    }
+
+    /**
+     * Intersects the postings of every gram a matching document must contain.
+     *
+     * @param kw the lowercase query
+     * @return the sorted candidate ids, or null if the query has no tokens
+     */
+    private int[] candidates(String kw) {
+        Set<String> grams = new HashSet<>();
+        for (String token : tokenize(kw)) {
+            if (token.length() <= MAX_GRAM) {
+                grams.add(token);
+            } else {
+                for (int i = 0; i + MAX_GRAM <= token.length(); i++) {
+                    grams.add(token.substring(i, i + MAX_GRAM));
+                }
+            }
+        }
+        if (grams.isEmpty()) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the rarest gram so the running intersection stays small.
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int count = result.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(result, count, lists.get(i));
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Intersects the first count ids of a sorted array with a postings list,
+     * writing the result back into the array.
+     *
+     * @return the number of ids kept
+     */
+    private static int intersect(int[] ids, int count, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < other.size; i++) {
+            while (j < other.size && other.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == ids[i]) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Rebuilds the index from its live documents, dropping all stale ids.
+     */
+    private void compact() {
+        List<Product> live = new ArrayList<>(docIds.size());
+        for (Product p : docs) {
+            if (p != null) {
+                live.add(p);
+            }
+        }
+        docs.clear();
+        texts.clear();
+        docIds.clear();
+        postings.clear();
+        for (Product p : live) {
+            add(p);
+        }
+    }
+
+    /**
+     * Returns the lowercase text a product is searched by.
+     *
+     * @param p the product
+     * @return name, category and description, separated by newlines
+     */
+    private static String searchableText(Product p) {
+        // Product.sanitize strips newlines from every field, so no match can span two fields.
+        return (p.getName() + "\n" + p.getCategory() + "\n" + p.getDescription()).toLowerCase();
+    }
+
+    /**
+     * Splits lowercase text into runs of letters and digits.
+     *
+     * @param text the text to split
+     * @return the tokens, in order
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds every substring of a token of length 1 to MAX_GRAM to a set.
+     */
+    private static void addGrams(String token, Set<String> grams) {
+        for (int i = 0; i < token.length(); i++) {
+            for (int len = 1; len <= MAX_GRAM && i + len <= token.length(); len++) {
+                grams.add(token.substring(i, i + len));
+            }
+        }
+    }
+
+    /**
+     * A growable, sorted array of document ids.
+     */
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Index of shipped orders by order ID and by customer email.
+// It complements the PriorityQueue, which indexes the pending orders the same way,
+// so looking up one order or one customer's orders never scans the full order list.
+public class ShippedOrderIndex {
+
+    // Shipped orders keyed by order ID.
+    private final Map<String, Order> byId;
+    // Shipped orders of each customer, in shipping order, keyed by normalized email.
+    private final Map<String, List<Order>> byCustomer;
+
+    /**
+     * Constructs an empty ShippedOrderIndex.
+     */
+    public ShippedOrderIndex() {
+        this.byId = new HashMap<>();
+        this.byCustomer = new HashMap<>();
+    }
+
+    /**
+     * Records a shipped order. Adding the same order twice has no effect.
+     *
+     * @param order the shipped Order
+     */
+    public void add(Order order) {
+        if (byId.putIfAbsent(order.getId(), order) == null) {
+            byCustomer.computeIfAbsent(User.normalizeEmail(order.getCustomerId()),
+                                       k -> new ArrayList<>()).add(order);
+        }
+    }
+
+    /**
+     * Returns the number of shipped orders.
+     *
+     * @return the order count
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Finds a shipped order by its ID.
+     *
+     * @param orderId the ID of the order
+     * @return the Order, or null if no shipped order has that ID
+     */
+    public Order searchById(String orderId) {
+        return byId.get(orderId);
+    }
+
+    /**
+     * Returns the shipped orders of a customer, in the order they were shipped.
+     *
+     * @param email the customer's email (ignoring case)
+     * @return an unmodifiable list of the customer's shipped orders
+     */
+    public List<Order> searchByCustomerEmail(String email) {
+        List<Order> orders = byCustomer.get(User.normalizeEmail(email));
+        return (orders == null) ? Collections.emptyList() : Collections.unmodifiableList(orders);
+    }
+}
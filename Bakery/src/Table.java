@@ -0,0 +1,131 @@
+import java.util.function.Function;
+
+/**
+ * The common operations shared by the hash table implementations used to store
+ * customers and employees. The type T must implement proper hashCode() and equals() methods.
+ *
+ * A table may be built with a key extractor, in which case elements are hashed
+ * by their key and can be looked up with getByKey without building a probe element.
+ * Two elements must be equal exactly when their keys are equal.
+ *
+ * @param <T> the type of element stored in the table
+ */
+public interface Table<T> {
+
+    /**
+     * The available table implementations.
+     */
+    enum Kind {
+        // Separate chaining with a LinkedList per bucket (HashTable).
+        CHAINED,
+        // Linear probing over flat arrays (OpenHashTable).
+        OPEN_ADDRESSING,
+        // Thread-safe chaining with striped locks (ConcurrentHashTable).
+        CONCURRENT
+    }
+
+    /**
+     * Creates an empty table of the requested kind.
+     *
+     * @param kind the implementation to use
+     * @param size the initial number of buckets or slots
+     * @return a new empty table
+     * @throws IllegalArgumentException if size <= 0
+     */
+    static <T> Table<T> create(Kind kind, int size) {
+        return create(kind, size, Function.identity());
+    }
+
+    /**
+     * Creates an empty table of the requested kind whose elements are hashed
+     * and looked up by the key the extractor returns.
+     *
+     * @param kind  the implementation to use
+     * @param size  the initial number of buckets or slots
+     * @param keyOf returns the (non-null) key of an element
+     * @return a new empty table
+     * @throws IllegalArgumentException if size <= 0
+     */
+    static <T> Table<T> create(Kind kind, int size, Function<? super T, ?> keyOf) {
+        switch (kind) {
+            case OPEN_ADDRESSING:
+                return new OpenHashTable<>(size, OpenHashTable.DEFAULT_MAX_LOAD_FACTOR, keyOf);
+            case CONCURRENT:
+                return new ConcurrentHashTable<>(size, ConcurrentHashTable.DEFAULT_MAX_LOAD_FACTOR, keyOf);
+            case CHAINED:
+            default:
+                return new HashTable<>(size, HashTable.DEFAULT_MAX_LOAD_FACTOR, keyOf);
+        }
+    }
+
+    /**
+     * Searches for an element and returns the stored copy if found.
+     *
+     * @param elmt the element to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if elmt is null
+     */
+    T get(T elmt);
+
+    /**
+     * Searches for the element with the given key.
+     * For a table built without a key extractor, the key is the element itself.
+     *
+     * @param key the key to search for
+     * @return the matching element or null if not found
+     * @throws NullPointerException if key is null
+     */
+    T getByKey(Object key);
+
+    /**
+     * Finds the bucket or slot index where an element is stored.
+     *
+     * @param elmt the element to locate
+     * @return the index if found, or -1 otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    int find(T elmt);
+
+    /**
+     * Checks whether the table contains the specified element.
+     *
+     * @param elmt the element to check
+     * @return true if found, false otherwise
+     * @throws NullPointerException if elmt is null
+     */
+    boolean contains(T elmt);
+
+    /**
+     * Adds an element to the table.
+     *
+     * @param elmt the element to add
+     * @throws NullPointerException if elmt is null
+     */
+    void add(T elmt);
+
+    /**
+     * Removes an element from the table.
+     *
+     * @param elmt the element to remove
+     * @return true if removed, false if not found
+     * @throws NullPointerException if elmt is null
+     */
+    boolean delete(T elmt);
+
+    /**
+     * Removes every element from the table.
+     */
+    void clear();
+
+    /**
+     * Returns the total number of elements in the table.
+     */
+    int getNumElements();
+
+    /**
+     * Computes the load factor of the table.
+     *
+     * @return elements divided by number of buckets or slots
+     */
+    double getLoadFactor();
+}
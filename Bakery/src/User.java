@@ -21,7 +21,7 @@ public abstract class User {
         this.firstName = (firstName == null) ? "" : firstName.trim();
         this.lastName  = (lastName == null)  ? "" : lastName.trim();
         // Convert email to lowercase for consistent comparisons.
-        this.email     = (email == null)     ? "" : email.trim().toLowerCase();
+        this.email     = normalizeEmail(email);
         this.password  = (password == null)  ? "" : password.trim();
     }
 
@@ -45,6 +45,17 @@ public abstract class User {
         this.email = email.trim().toLowerCase();
     }
 
+    /**
+     * Normalizes an email the same way the constructor does (trimmed, lowercase,
+     * empty if null), so it can be used directly as a lookup key.
+     *
+     * @param email the raw email
+     * @return the normalized email
+     */
+    public static String normalizeEmail(String email) {
+        return (email == null) ? "" : email.trim().toLowerCase();
+    }
+
     public void setPassword(String password) {
         this.password = password.trim();
     }